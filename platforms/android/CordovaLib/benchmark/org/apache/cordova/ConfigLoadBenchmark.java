@@ -0,0 +1,126 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+import java.io.StringReader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xmlpull.v1.XmlPullParser;
+
+import android.util.Xml;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+/**
+ * Loading config.xml into a ConfigXmlParser: parsed, and as the CompiledConfig
+ * plugin-registry-processor generates for it. Uses the sample app's config.xml; the app
+ * reads it from compiled resource XML, which parses somewhat faster than this text.
+ * The effect on the whole cold start shows in StartupBenchmark.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class ConfigLoadBenchmark {
+    private static final String CONFIG_XML = "<?xml version='1.0' encoding='utf-8'?>\n"
+            + "<widget id=\"com.example.cordovaperformance\" version=\"1.0.0\" xmlns=\"http://www.w3.org/ns/widgets\">\n"
+            + "    <content src=\"index.html\" />\n"
+            + "    <access origin=\"*\" />\n"
+            + "    <allow-intent href=\"http://*/*\" />\n"
+            + "    <allow-intent href=\"https://*/*\" />\n"
+            + "    <allow-intent href=\"tel:*\" />\n"
+            + "    <allow-intent href=\"sms:*\" />\n"
+            + "    <allow-intent href=\"mailto:*\" />\n"
+            + "    <allow-intent href=\"geo:*\" />\n"
+            + "    <allow-intent href=\"market:*\" />\n"
+            + "    <preference name=\"loglevel\" value=\"DEBUG\" />\n"
+            + "    <preference name=\"DisallowOverscroll\" value=\"true\" />\n"
+            + "    <preference name=\"BackupWebStorage\" value=\"local\" />\n"
+            + "    <preference name=\"android-minSdkVersion\" value=\"24\" />\n"
+            + "    <preference name=\"android-targetSdkVersion\" value=\"33\" />\n"
+            + "</widget>\n";
+
+    // What ConfigSnapshotProcessor generates for CONFIG_XML
+    private static final CompiledConfig COMPILED = new CompiledConfig() {
+        @Override
+        public String[] getPreferences() {
+            return new String[] {
+                "loglevel", "DEBUG",
+                "disallowoverscroll", "true",
+                "backupwebstorage", "local",
+                "android-minsdkversion", "24",
+                "android-targetsdkversion", "33",
+            };
+        }
+
+        @Override
+        public PluginEntry[] getPluginEntries() {
+            return new PluginEntry[0];
+        }
+
+        @Override
+        public String getContentSrc() {
+            return "index.html";
+        }
+
+        @Override
+        public void addAllowListEntries(AllowList navigations, AllowList intents, AllowList requests) {
+            navigations.addAllowListEntry("http", "index.html", null, null);
+            navigations.addAllowListEntry("https", "index.html", null, null);
+            requests.addAllowListEntry("http", "*", null, "/*");
+            requests.addAllowListEntry("https", "*", null, "/*");
+            intents.addAllowListEntry("http", "*", null, "/*");
+            intents.addAllowListEntry("https", "*", null, "/*");
+            intents.addAllowListEntry("tel", "*", null, null);
+            intents.addAllowListEntry("sms", "*", null, null);
+            intents.addAllowListEntry("mailto", "*", null, null);
+            intents.addAllowListEntry("geo", "*", null, null);
+            intents.addAllowListEntry("market", "*", null, null);
+        }
+    };
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void parsed() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            XmlPullParser xml = Xml.newPullParser();
+            xml.setInput(new StringReader(CONFIG_XML));
+            ConfigXmlParser parser = new ConfigXmlParser();
+            parser.parse(xml);
+            parser.getLaunchUrl();
+        }
+    }
+
+    @Test
+    public void compiled() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            ConfigXmlParser parser = new ConfigXmlParser();
+            parser.parse(COMPILED);
+            parser.getLaunchUrl();
+        }
+    }
+}
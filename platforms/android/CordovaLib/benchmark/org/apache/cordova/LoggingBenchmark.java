@@ -0,0 +1,123 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+/**
+ * The debug messages of one startup (plugin registration, page load) with the default
+ * ERROR log level: as written before, with the message built unconditionally, behind
+ * an isLoggable() guard, and as a Supplier. The allocation counts are the point; with
+ * cordova-strip-logging.pro R8 removes the calls altogether.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class LoggingBenchmark {
+    private static final String TAG = "LoggingBenchmark";
+    private static final String[] SERVICES = {
+        "CoreAndroid", "AllowList", "CDVSplashScreen", "PreloadReadiness", "ViewRouter",
+        "SessionState", "CommandChannel", "Device", "StatusBar", "Keyboard",
+    };
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    // Not constants, so javac cannot fold the concatenations away
+    private String url = "https://localhost/index.html";
+    private boolean clearHistory = false;
+    private int savedLevel;
+
+    @Before
+    public void setUp() {
+        savedLevel = LOG.LOGLEVEL;
+        LOG.setLogLevel(LOG.ERROR);
+    }
+
+    @After
+    public void tearDown() {
+        LOG.setLogLevel(savedLevel);
+    }
+
+    @Test
+    public void unguarded() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String service : SERVICES) {
+                LOG.d(TAG, "startupPlugins: put - " + service);
+                LOG.d(TAG, "getPlugin - put: " + service);
+            }
+            LOG.d(TAG, ">>> loadUrl(" + url + ")");
+            LOG.d(TAG, "showWebPage(%s, %b, %b, HashMap)", url, false, clearHistory);
+            LOG.d(TAG, "onPageDidNavigate(" + url + ")");
+            LOG.d(TAG, "onPageFinished(" + url + ")");
+        }
+    }
+
+    @Test
+    public void guarded() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String service : SERVICES) {
+                if (LOG.isLoggable(LOG.DEBUG)) {
+                    LOG.d(TAG, "startupPlugins: put - " + service);
+                }
+                if (LOG.isLoggable(LOG.DEBUG)) {
+                    LOG.d(TAG, "getPlugin - put: " + service);
+                }
+            }
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, ">>> loadUrl(" + url + ")");
+            }
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, "showWebPage(%s, %b, %b, HashMap)", url, false, clearHistory);
+            }
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, "onPageDidNavigate(" + url + ")");
+            }
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, "onPageFinished(" + url + ")");
+            }
+        }
+    }
+
+    @Test
+    public void supplier() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String service : SERVICES) {
+                LOG.d(TAG, () -> "startupPlugins: put - " + service);
+                LOG.d(TAG, () -> "getPlugin - put: " + service);
+            }
+            LOG.d(TAG, () -> ">>> loadUrl(" + url + ")");
+            LOG.d(TAG, () -> String.format("showWebPage(%s, %b, %b, HashMap)", url, false, clearHistory));
+            LOG.d(TAG, () -> "onPageDidNavigate(" + url + ")");
+            LOG.d(TAG, () -> "onPageFinished(" + url + ")");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+/**
+ * Cost of creating a plugin by name: reflection as PluginManager used to do it, the
+ * constructor cached by PluginClassCache, and a switch like the generated PluginRegistry.
+ * Classes are already loaded here; the cold start difference shows in StartupBenchmark.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class PluginInstantiationBenchmark {
+    private static final String[] CLASS_NAMES = {
+        "org.apache.cordova.CoreAndroid",
+        "org.apache.cordova.AllowListPlugin",
+    };
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final PluginRegistry registry = new PluginRegistry() {
+        @Override
+        public CordovaPlugin newPlugin(String className) {
+            switch (className) {
+                case "org.apache.cordova.CoreAndroid":
+                    return new CoreAndroid();
+                case "org.apache.cordova.AllowListPlugin":
+                    return new AllowListPlugin();
+                default:
+                    return null;
+            }
+        }
+    };
+
+    @Test
+    public void reflection() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String className : CLASS_NAMES) {
+                Class.forName(className).newInstance();
+            }
+        }
+    }
+
+    @Test
+    public void cachedConstructor() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String className : CLASS_NAMES) {
+                PluginClassCache.getConstructor(className).newInstance();
+            }
+        }
+    }
+
+    @Test
+    public void generatedRegistry() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String className : CLASS_NAMES) {
+                registry.newPlugin(className);
+            }
+        }
+    }
+}
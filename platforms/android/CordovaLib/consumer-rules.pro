@@ -0,0 +1,34 @@
+# Looked up by name by PluginClassCache and CordovaConfig when the app is built with
+# plugin-registry-processor
+-keep class org.apache.cordova.GeneratedPluginRegistry {
+    public <init>();
+}
+-keep class org.apache.cordova.GeneratedConfig {
+    public <init>();
+}
+
+# Looked up by name by ActionDispatchers: <Plugin>_ActionDispatcher next to its plugin
+-keepnames class * extends org.apache.cordova.CordovaPlugin
+# ActionDispatchers finds the execute() overrides by name
+-keepclassmembernames class * extends org.apache.cordova.CordovaPlugin {
+    public boolean execute(java.lang.String, ***, org.apache.cordova.CallbackContext);
+}
+-keep class * implements org.apache.cordova.ActionDispatcher {
+    public <init>();
+}
+
+# Plugins named only in config.xml are instantiated reflectively when there is no
+# generated registry
+-keep public class * extends org.apache.cordova.CordovaPlugin {
+    public <init>();
+}
+
+# The engine named by the "webview" preference, created by CordovaWebViewImpl.createEngine()
+-keep class * implements org.apache.cordova.CordovaWebViewEngine {
+    public <init>(android.content.Context, org.apache.cordova.CordovaPreferences);
+}
+
+# Read by name by BuildHelper.getBuildConfigValue()
+-keepclassmembers class **.BuildConfig {
+    public static <fields>;
+}
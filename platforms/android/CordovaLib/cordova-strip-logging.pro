@@ -0,0 +1,27 @@
+# Opt-in R8 rules that remove verbose and debug logging from release builds, including
+# the construction of their messages (string concatenation, boxing, Supplier lambdas).
+# Not a consumer rule: apps that want verbose logs in production (see AsyncLogBackend)
+# simply leave it out. To use it, add it to the release build type's proguardFiles.
+-assumenosideeffects class org.apache.cordova.LOG {
+    public static boolean isLoggable(int);
+    public static void v(...);
+    public static void d(...);
+}
+
+-assumenosideeffects class android.util.Log {
+    public static boolean isLoggable(java.lang.String, int);
+    public static int v(...);
+    public static int d(...);
+}
+
+# -assumenosideeffects only drops calls whose result is unused. These make isLoggable()
+# false, so every "if (LOG.isLoggable(LOG.DEBUG)) { ... }" block is dead code and removed.
+# They apply to every level: do not use these rules if code guards warnings or errors
+# with isLoggable() (LOG's own methods compare with the level directly and are unaffected).
+-assumevalues class org.apache.cordova.LOG {
+    public static boolean isLoggable(int) return false;
+}
+
+-assumevalues class android.util.Log {
+    public static boolean isLoggable(java.lang.String, int) return false;
+}
@@ -0,0 +1,36 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova;
+
+import org.json.JSONException;
+
+/**
+ * Routes the annotated actions of one plugin class (see CordovaAction).
+ * Implementations are generated by plugin-registry-processor; use ActionDispatchers.
+ */
+public interface ActionDispatcher {
+    /**
+     * Run the action if the plugin class has a CordovaAction method for it.
+     * The arguments are only parsed once the action is known to need them.
+     *
+     * @return false if the action is not annotated, so execute() should handle it
+     */
+    boolean dispatch(CordovaPlugin plugin, String action, String rawArgs, CallbackContext callbackContext)
+            throws JSONException;
+}
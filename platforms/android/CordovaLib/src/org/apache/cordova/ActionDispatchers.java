@@ -0,0 +1,146 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.json.JSONException;
+
+/**
+ * Finds the generated ActionDispatchers of a plugin class and its superclasses.
+ * Each class is looked up once; plugins without CordovaAction methods cost one map lookup.
+ *
+ * PluginManager runs the dispatchers of the plugin's class, and of its superclasses up to
+ * the nearest one that overrides execute(), before execute(). The rest are reached when
+ * execute() falls through to CordovaPlugin's, so an execute() override can intercept the
+ * annotated actions it inherits.
+ */
+public final class ActionDispatchers {
+    private static final String TAG = "ActionDispatchers";
+    static final String SUFFIX = "_ActionDispatcher";
+
+    private static final ActionDispatcher[] NONE = new ActionDispatcher[0];
+    private static final ConcurrentHashMap<Class<?>, Lookup> byClass = new ConcurrentHashMap<Class<?>, Lookup>();
+
+    private static final class Lookup {
+        // Most derived first
+        final ActionDispatcher[] all;
+        // Those of all that come before execute()
+        final ActionDispatcher[] beforeExecute;
+
+        Lookup(ActionDispatcher[] all, ActionDispatcher[] beforeExecute) {
+            this.all = all;
+            this.beforeExecute = beforeExecute;
+        }
+    }
+
+    private ActionDispatchers() {
+    }
+
+    /**
+     * Run the action through every dispatcher of the plugin's class, most derived first
+     *
+     * @return false if no CordovaAction method handles it
+     */
+    public static boolean dispatch(CordovaPlugin plugin, String action, String rawArgs,
+            CallbackContext callbackContext) throws JSONException {
+        return dispatch(forClass(plugin.getClass()).all, plugin, action, rawArgs, callbackContext);
+    }
+
+    /**
+     * Whether the plugin class or one of its superclasses has CordovaAction methods,
+     * so callers can skip building the raw arguments for dispatch() otherwise
+     */
+    static boolean hasDispatchers(Class<? extends CordovaPlugin> pluginClass) {
+        return forClass(pluginClass).all.length > 0;
+    }
+
+    /**
+     * Run the action through the dispatchers that take precedence over the plugin's execute()
+     */
+    static boolean dispatchBeforeExecute(CordovaPlugin plugin, String action, String rawArgs,
+            CallbackContext callbackContext) throws JSONException {
+        return dispatch(forClass(plugin.getClass()).beforeExecute, plugin, action, rawArgs, callbackContext);
+    }
+
+    private static boolean dispatch(ActionDispatcher[] dispatchers, CordovaPlugin plugin, String action,
+            String rawArgs, CallbackContext callbackContext) throws JSONException {
+        for (ActionDispatcher dispatcher : dispatchers) {
+            if (dispatcher.dispatch(plugin, action, rawArgs, callbackContext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Lookup forClass(Class<?> pluginClass) {
+        Lookup lookup = byClass.get(pluginClass);
+        if (lookup == null) {
+            List<ActionDispatcher> found = new ArrayList<ActionDispatcher>();
+            int beforeExecute = -1;
+            for (Class<?> c = pluginClass; c != CordovaPlugin.class && c != null; c = c.getSuperclass()) {
+                ActionDispatcher dispatcher = load(c);
+                if (dispatcher != null) {
+                    found.add(dispatcher);
+                }
+                if (beforeExecute < 0 && overridesExecute(c)) {
+                    beforeExecute = found.size();
+                }
+            }
+            ActionDispatcher[] all = toArray(found);
+            lookup = new Lookup(all, beforeExecute < 0 ? all : toArray(found.subList(0, beforeExecute)));
+            byClass.put(pluginClass, lookup);
+        }
+        return lookup;
+    }
+
+    private static ActionDispatcher[] toArray(List<ActionDispatcher> dispatchers) {
+        return dispatchers.isEmpty() ? NONE : dispatchers.toArray(new ActionDispatcher[dispatchers.size()]);
+    }
+
+    private static boolean overridesExecute(Class<?> c) {
+        for (Method method : c.getDeclaredMethods()) {
+            Class<?>[] params = method.getParameterTypes();
+            if (method.getName().equals("execute") && params.length == 3 && params[0] == String.class
+                    && params[2] == CallbackContext.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ActionDispatcher load(Class<?> pluginClass) {
+        // Nested plugin classes get Outer_Inner_ActionDispatcher
+        String name = pluginClass.getName();
+        int packageEnd = name.lastIndexOf('.') + 1;
+        String dispatcherName = name.substring(0, packageEnd) + name.substring(packageEnd).replace('$', '_') + SUFFIX;
+        try {
+            return (ActionDispatcher) Class.forName(dispatcherName, true, pluginClass.getClassLoader())
+                    .getConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (Exception e) {
+            LOG.e(TAG, "Cannot create " + dispatcherName, e);
+            return null;
+        }
+    }
+}
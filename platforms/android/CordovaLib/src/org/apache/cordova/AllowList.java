@@ -100,6 +100,13 @@ public class AllowList {
         this.allowList = new ArrayList<URLPattern>();
     }
 
+    /**
+     * A copy of another list; the compiled patterns are shared.
+     */
+    public AllowList(AllowList other) {
+        this.allowList = other.allowList != null ? new ArrayList<URLPattern>(other.allowList) : null;
+    }
+
     /* Match patterns (from http://developer.chrome.com/extensions/match_patterns.html)
      *
      * <url-pattern> := <scheme>://<host><path>
@@ -144,6 +151,20 @@ public class AllowList {
         }
     }
 
+    /**
+     * Add an origin already split into scheme, host, port and path, as the one above
+     * does (used by CompiledConfig). A null scheme, port or path matches any.
+     */
+    public void addAllowListEntry(String scheme, String host, String port, String path) {
+        if (allowList != null) {
+            try {
+                allowList.add(new URLPattern(scheme, host, port, path));
+            } catch (Exception e) {
+                LOG.d(TAG, "Failed to add origin %s://%s", scheme, host);
+            }
+        }
+    }
+
 
     /**
      * Determine if URL is in approved list of URLs to load.
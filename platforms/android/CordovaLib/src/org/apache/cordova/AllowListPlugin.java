@@ -65,11 +65,11 @@ public class AllowListPlugin extends CordovaPlugin {
     @Override
     public void pluginInitialize() {
         if (this.allowedNavigations == null) {
-            this.allowedNavigations = new AllowList();
-            this.allowedIntents = new AllowList();
-            this.allowedRequests = new AllowList();
-
-            new CustomConfigXmlParser().parse(webView.getContext());
+            // From the process-wide snapshot instead of parsing config.xml for every WebView
+            CordovaConfig config = CordovaConfig.get(webView.getContext());
+            this.allowedNavigations = config.newAllowedNavigations();
+            this.allowedIntents = config.newAllowedIntents();
+            this.allowedRequests = config.newAllowedRequests();
         }
     }
 
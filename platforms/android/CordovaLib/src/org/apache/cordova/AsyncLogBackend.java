@@ -0,0 +1,386 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * LogBackend that keeps logging off the calling thread.
+ *
+ * A log call only claims a slot of a fixed ring buffer (a compare-and-set, no lock) and
+ * stores the unformatted message in it; a background thread formats the messages and
+ * writes them to android.util.Log and, optionally, to a binary log file that can be
+ * pulled from a device in the field and read with decode(). When the ring is full,
+ * messages are dropped rather than blocking the caller, and the number dropped is logged.
+ *
+ * Tags can be sampled (one message in N) or rate limited (N messages per second);
+ * errors are never dropped by either. The number of messages held back that way is
+ * logged at most once a minute.
+ *
+ * Arguments are formatted later, on the writer thread, so they must not be mutated after
+ * being logged.
+ */
+public class AsyncLogBackend implements LogBackend {
+    private static final String TAG = "AsyncLogBackend";
+    private static final long IDLE_PARK_NANOS = 100 * 1000000L;
+    private static final long LIMITED_REPORT_INTERVAL_MS = 60 * 1000L;
+    private static final int MAX_MESSAGE_CHARS = 16 * 1024;
+    private static final int FILE_MAGIC = 0x43444c31; // "CDL1"
+
+    /**
+     * One message. Slots are reused; sequence is written last and publishes the rest.
+     */
+    private static final class Slot {
+        volatile long sequence;
+        long time;
+        long threadId;
+        int priority;
+        String tag;
+        String format;
+        Object[] args;
+        Throwable error;
+    }
+
+    private static final class TagPolicy {
+        final int sampleEvery;
+        final int maxPerSecond;
+        final AtomicLong seen = new AtomicLong();
+        final AtomicInteger inWindow = new AtomicInteger();
+        volatile long windowStart;
+
+        TagPolicy(int sampleEvery, int maxPerSecond) {
+            this.sampleEvery = sampleEvery;
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        boolean admit(long now) {
+            if (sampleEvery > 1 && seen.getAndIncrement() % sampleEvery != 0) {
+                return false;
+            }
+            if (maxPerSecond > 0) {
+                if (now - windowStart >= 1000) {
+                    // Racing callers may both reset; the limit is approximate at window edges
+                    windowStart = now;
+                    inWindow.set(0);
+                }
+                return inWindow.incrementAndGet() <= maxPerSecond;
+            }
+            return true;
+        }
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong writeSequence = new AtomicLong();
+    private volatile long readSequence;
+    // Everything before it is written out, including to the binary log
+    private volatile long flushedSequence;
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong limited = new AtomicLong();
+    private final ConcurrentHashMap<String, TagPolicy> policies = new ConcurrentHashMap<String, TagPolicy>();
+
+    private final File binaryLog;
+    private final long maxBinaryLogBytes;
+    private DataOutputStream binaryOut;
+    private long binaryLogBytes;
+
+    private final Thread writer;
+    private volatile boolean writerWaiting;
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity          Ring size, rounded up to a power of two
+     * @param binaryLog         File to also write the messages to, or null for logcat only.
+     *                          When it reaches maxBinaryLogBytes it is moved to
+     *                          binaryLog + ".1" (replacing the previous one) and started over.
+     * @param maxBinaryLogBytes Size of each binary log file
+     */
+    public AsyncLogBackend(int capacity, File binaryLog, long maxBinaryLogBytes) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        mask = size - 1;
+        this.binaryLog = binaryLog;
+        this.maxBinaryLogBytes = maxBinaryLogBytes;
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                drainLoop();
+            }
+        }, "CordovaLog");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Keep only one message in sampleEvery of the tag (1 for all), and at most
+     * maxPerSecond per second (0 for no limit)
+     */
+    public void setTagPolicy(String tag, int sampleEvery, int maxPerSecond) {
+        if (sampleEvery <= 1 && maxPerSecond <= 0) {
+            policies.remove(tag);
+        } else {
+            policies.put(tag, new TagPolicy(sampleEvery, maxPerSecond));
+        }
+    }
+
+    @Override
+    public void log(int priority, String tag, String format, Object[] args, Throwable error) {
+        long now = System.currentTimeMillis();
+        if (priority < LOG.ERROR && !policies.isEmpty()) {
+            TagPolicy policy = policies.get(tag);
+            if (policy != null && !policy.admit(now)) {
+                limited.incrementAndGet();
+                return;
+            }
+        }
+        long seq;
+        do {
+            seq = writeSequence.get();
+            if (seq - readSequence >= slots.length) {
+                overflowed.incrementAndGet();
+                return;
+            }
+        } while (!writeSequence.compareAndSet(seq, seq + 1));
+
+        Slot slot = slots[(int) (seq & mask)];
+        slot.time = now;
+        slot.threadId = Thread.currentThread().getId();
+        slot.priority = priority;
+        slot.tag = tag;
+        slot.format = format;
+        slot.args = args;
+        slot.error = error;
+        slot.sequence = seq + 1;
+        if (writerWaiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Wait until every message logged so far is written (and the binary log flushed)
+     *
+     * @return false if that took longer than the timeout
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = writeSequence.get();
+        long deadline = System.nanoTime() + timeoutMillis * 1000000L;
+        while (flushedSequence < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(1000000L);
+        }
+        return true;
+    }
+
+    /**
+     * Write what is queued and stop the writer; later messages are dropped
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        long read = readSequence;
+        long reportedOverflows = 0;
+        long reportedLimited = 0;
+        long limitedReportedAt = 0;
+        while (true) {
+            Slot slot = slots[(int) (read & mask)];
+            if (slot.sequence != read + 1) {
+                long now = System.currentTimeMillis();
+                long overflows = overflowed.get();
+                if (overflows != reportedOverflows) {
+                    write(now, Thread.currentThread().getId(), Log.WARN, TAG,
+                            (overflows - reportedOverflows) + " log messages dropped, ring full ("
+                                    + overflows + " in total)");
+                    reportedOverflows = overflows;
+                }
+                // Sampling is intended, so it is only summed up now and then
+                long held = limited.get();
+                if (held != reportedLimited && now - limitedReportedAt >= LIMITED_REPORT_INTERVAL_MS) {
+                    write(now, Thread.currentThread().getId(), Log.INFO, TAG,
+                            (held - reportedLimited) + " log messages sampled or rate limited ("
+                                    + held + " in total)");
+                    reportedLimited = held;
+                    limitedReportedAt = now;
+                }
+                flushBinaryLog();
+                flushedSequence = read;
+                if (!running && writeSequence.get() == read) {
+                    closeBinaryLog();
+                    return;
+                }
+                writerWaiting = true;
+                if (slot.sequence != read + 1) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                writerWaiting = false;
+                continue;
+            }
+            long time = slot.time;
+            long threadId = slot.threadId;
+            int priority = slot.priority;
+            String tag = slot.tag;
+            String format = slot.format;
+            Object[] args = slot.args;
+            Throwable error = slot.error;
+            slot.tag = null;
+            slot.format = null;
+            slot.args = null;
+            slot.error = null;
+            read++;
+            // Frees the slot for producers
+            readSequence = read;
+            String message;
+            try {
+                message = LOG.format(format, args, error);
+            } catch (RuntimeException e) {
+                // An argument's toString() failed, e.g. on a collection mutated since the call
+                message = "Unformattable log message \"" + format + "\": " + e;
+            }
+            write(time, threadId, priority, tag, message);
+        }
+    }
+
+    private void write(long time, long threadId, int priority, String tag, String message) {
+        Log.println(priority, tag, message);
+        if (binaryLog == null) {
+            return;
+        }
+        try {
+            if (binaryOut == null || binaryLogBytes >= maxBinaryLogBytes) {
+                openBinaryLog();
+            }
+            if (message.length() > MAX_MESSAGE_CHARS) {
+                message = message.substring(0, MAX_MESSAGE_CHARS);
+            }
+            int before = binaryOut.size();
+            binaryOut.writeLong(time);
+            binaryOut.writeLong(threadId);
+            binaryOut.writeByte(priority);
+            binaryOut.writeUTF(tag != null ? tag : "");
+            binaryOut.writeUTF(message);
+            binaryLogBytes += binaryOut.size() - before;
+        } catch (IOException e) {
+            Log.w(TAG, "Binary log failed, logging to logcat only", e);
+            closeBinaryLog();
+        }
+    }
+
+    private void openBinaryLog() throws IOException {
+        closeBinaryLog();
+        if (binaryLog.exists() && binaryLog.length() >= maxBinaryLogBytes) {
+            File previous = new File(binaryLog.getPath() + ".1");
+            previous.delete();
+            binaryLog.renameTo(previous);
+        }
+        boolean append = binaryLog.exists() && binaryLog.length() > 0;
+        binaryOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryLog, append), 8192));
+        binaryLogBytes = append ? binaryLog.length() : 0;
+        if (!append) {
+            binaryOut.writeInt(FILE_MAGIC);
+            binaryLogBytes = 4;
+        }
+    }
+
+    private void flushBinaryLog() {
+        if (binaryOut != null) {
+            try {
+                binaryOut.flush();
+            } catch (IOException e) {
+                closeBinaryLog();
+            }
+        }
+    }
+
+    private void closeBinaryLog() {
+        if (binaryOut != null) {
+            try {
+                binaryOut.close();
+            } catch (IOException e) {
+                // Nothing left to do with it
+            }
+            binaryOut = null;
+        }
+    }
+
+    /**
+     * Print a binary log as text, one "time priority/tag(thread): message" line per message
+     */
+    public static void decode(File file, PrintWriter out) throws IOException {
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        InputStream in = new FileInputStream(file);
+        try {
+            DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            if (data.readInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not a Cordova binary log");
+            }
+            try {
+                while (true) {
+                    long time = data.readLong();
+                    long threadId = data.readLong();
+                    int priority = data.readByte();
+                    String tag = data.readUTF();
+                    String message = data.readUTF();
+                    out.println(timeFormat.format(new Date(time)) + " "
+                            + "??VDIWEA".charAt(Math.min(Math.max(priority, 0), 7))
+                            + "/" + tag + "(" + threadId + "): " + message);
+                }
+            } catch (EOFException e) {
+                // End of the log, or a message cut short when the process died
+            }
+        } finally {
+            in.close();
+        }
+        out.flush();
+    }
+}
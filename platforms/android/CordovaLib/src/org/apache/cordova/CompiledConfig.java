@@ -0,0 +1,49 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+/**
+ * config.xml compiled into code at build time, so it is not parsed on every cold start.
+ * The app's implementation, org.apache.cordova.GeneratedConfig, is generated by
+ * plugin-registry-processor; CordovaConfig loads it through ConfigXmlParser.parse(CompiledConfig)
+ * and parses res/xml/config.xml only when it is missing.
+ */
+public interface CompiledConfig {
+    /**
+     * Preference names, already lowercased, and values, alternating, in config.xml order
+     */
+    String[] getPreferences();
+
+    /**
+     * The features of config.xml; ConfigXmlParser adds the built-in plugins
+     */
+    PluginEntry[] getPluginEntries();
+
+    /**
+     * The src of the content tag, or null if there is none
+     */
+    String getContentSrc();
+
+    /**
+     * Add the content, allow-navigation, allow-intent and access entries, already split into
+     * their parts as AllowList.addAllowListEntry(String, boolean) would
+     */
+    void addAllowListEntries(AllowList navigations, AllowList intents, AllowList requests);
+}
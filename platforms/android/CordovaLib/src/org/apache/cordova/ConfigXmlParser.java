@@ -21,6 +21,7 @@ package org.apache.cordova;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -40,6 +41,9 @@ public class ConfigXmlParser {
     private String contentSrc;
     private CordovaPreferences prefs = new CordovaPreferences();
     private ArrayList<PluginEntry> pluginEntries = new ArrayList<PluginEntry>(20);
+    private AllowList allowedNavigations = new AllowList();
+    private AllowList allowedIntents = new AllowList();
+    private AllowList allowedRequests = new AllowList();
 
     public CordovaPreferences getPreferences() {
         return prefs;
@@ -49,6 +53,21 @@ public class ConfigXmlParser {
         return pluginEntries;
     }
 
+    /**
+     * The content and allow-navigation entries, as AllowListPlugin reads them
+     */
+    public AllowList getAllowedNavigations() {
+        return allowedNavigations;
+    }
+
+    public AllowList getAllowedIntents() {
+        return allowedIntents;
+    }
+
+    public AllowList getAllowedRequests() {
+        return allowedRequests;
+    }
+
     public String getLaunchUrl() {
         if (launchUrl == null) {
             setStartUrl(contentSrc);
@@ -69,6 +88,26 @@ public class ConfigXmlParser {
             }
         }
 
+        addBuiltInPluginEntries();
+        parse(action.getResources().getXml(id));
+    }
+
+    /**
+     * Load config.xml as compiled at build time instead of parsing it
+     */
+    public void parse(CompiledConfig config) {
+        addBuiltInPluginEntries();
+        String[] preferences = config.getPreferences();
+        for (int i = 0; i < preferences.length; i += 2) {
+            prefs.set(preferences[i], preferences[i + 1]);
+        }
+        Collections.addAll(pluginEntries, config.getPluginEntries());
+        contentSrc = config.getContentSrc();
+        config.addAllowListEntries(allowedNavigations, allowedIntents, allowedRequests);
+        onPostParse();
+    }
+
+    private void addBuiltInPluginEntries() {
         pluginEntries.add(
             new PluginEntry(
                 AllowListPlugin.PLUGIN_NAME,
@@ -84,13 +123,12 @@ public class ConfigXmlParser {
                 true
             )
         );
-
-        parse(action.getResources().getXml(id));
     }
 
     boolean insideFeature = false;
     String service = "", pluginClass = "", paramType = "";
     boolean onload = false;
+    PluginEntry.OnloadPhase onloadPhase = PluginEntry.OnloadPhase.BEFORE_FIRST_FRAME;
 
     public void parse(XmlPullParser xml) {
         int eventType = -1;
@@ -141,6 +179,8 @@ public class ConfigXmlParser {
                 pluginClass = xml.getAttributeValue(null,"value");
             else if (paramType.equals("onload"))
                 onload = "true".equals(xml.getAttributeValue(null, "value"));
+            else if (paramType.equals("onload-phase"))
+                onloadPhase = PluginEntry.OnloadPhase.fromConfigValue(xml.getAttributeValue(null, "value"));
         }
         else if (strNode.equals("preference")) {
             String name = xml.getAttributeValue(null, "name").toLowerCase(Locale.ENGLISH);
@@ -151,22 +191,47 @@ public class ConfigXmlParser {
             String src = xml.getAttributeValue(null, "src");
             if (src != null) {
                 contentSrc = src;
+                allowedNavigations.addAllowListEntry(src, false);
             } else {
                 // Default
                 contentSrc = DEFAULT_CONTENT_SRC;
             }
         }
+        else if (strNode.equals("allow-navigation")) {
+            String origin = xml.getAttributeValue(null, "href");
+            if ("*".equals(origin)) {
+                allowedNavigations.addAllowListEntry("http://*/*", false);
+                allowedNavigations.addAllowListEntry("https://*/*", false);
+                allowedNavigations.addAllowListEntry("data:*", false);
+            } else {
+                allowedNavigations.addAllowListEntry(origin, false);
+            }
+        }
+        else if (strNode.equals("allow-intent")) {
+            allowedIntents.addAllowListEntry(xml.getAttributeValue(null, "href"), false);
+        }
+        else if (strNode.equals("access")) {
+            String origin = xml.getAttributeValue(null, "origin");
+            if ("*".equals(origin)) {
+                allowedRequests.addAllowListEntry("http://*/*", false);
+                allowedRequests.addAllowListEntry("https://*/*", false);
+            } else if (origin != null) {
+                String subdomains = xml.getAttributeValue(null, "subdomains");
+                allowedRequests.addAllowListEntry(origin, (subdomains != null) && (subdomains.compareToIgnoreCase("true") == 0));
+            }
+        }
     }
 
     public void handleEndTag(XmlPullParser xml) {
         String strNode = xml.getName();
         if (strNode.equals("feature")) {
-            pluginEntries.add(new PluginEntry(service, pluginClass, onload));
+            pluginEntries.add(new PluginEntry(service, pluginClass, onload, onloadPhase));
 
             service = "";
             pluginClass = "";
             insideFeature = false;
             onload = false;
+            onloadPhase = PluginEntry.OnloadPhase.BEFORE_FIRST_FRAME;
         }
     }
 
@@ -0,0 +1,62 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a plugin method as the handler of an exec() action, instead of an
+ * action.equals() branch in execute().
+ *
+ * At build time plugin-registry-processor generates a <Plugin>_ActionDispatcher for
+ * every class with such methods: a switch on the action name that binds the arguments
+ * to the parameters by type and calls the method. PluginManager tries it before execute(),
+ * so actions that are not annotated still go through execute(); see CordovaPlugin for
+ * the order with inherited methods and execute() overrides.
+ *
+ * Parameters are bound in order from the exec() arguments: String, int, long, double,
+ * boolean, JSONObject, JSONArray and byte[] (an ArrayBuffer). A CordovaArgs parameter
+ * receives all the arguments and a CallbackContext parameter the callback; neither
+ * consumes an argument. A parameter marked Optional is null (or 0/false) when the
+ * argument is missing; otherwise a missing argument is a JSON_EXCEPTION.
+ *
+ * A method without a CallbackContext parameter replies when it returns: OK with its
+ * return value (String, int, boolean, JSONObject, JSONArray or byte[]), or OK with an
+ * empty string if it is void. A method with one replies itself. Methods may throw JSONException only, and
+ * must not be private or static.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface CordovaAction {
+    /**
+     * The action name; the method name if empty
+     */
+    String value() default "";
+
+    /**
+     * Marks a parameter whose argument may be missing or null
+     */
+    @Retention(RetentionPolicy.CLASS)
+    @Target(ElementType.PARAMETER)
+    @interface Optional {
+    }
+}
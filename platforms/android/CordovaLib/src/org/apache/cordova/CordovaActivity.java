@@ -169,13 +169,13 @@ public class CordovaActivity extends AppCompatActivity {
 
     @SuppressWarnings("deprecation")
     protected void loadConfig() {
-        ConfigXmlParser parser = new ConfigXmlParser();
-        parser.parse(this);
-        preferences = parser.getPreferences();
+        // config.xml is parsed once per process; take our own copies of it
+        CordovaConfig config = CordovaConfig.get(this);
+        preferences = config.newPreferences();
         preferences.setPreferencesBundle(getIntent().getExtras());
-        launchUrl = parser.getLaunchUrl();
-        pluginEntries = parser.getPluginEntries();
-        Config.parser = parser;
+        launchUrl = config.getLaunchUrl();
+        pluginEntries = config.newPluginEntries();
+        Config.parser = config.getParser();
     }
 
     //Suppressing warnings in AndroidStudio
@@ -328,6 +328,12 @@ public class CordovaActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        CordovaResourceApi.onTrimMemory(level);
+    }
+
     /**
      * Called when view focus is changed
      */
@@ -31,6 +31,13 @@ public class CordovaArgs {
         this.baseArgs = args;
     }
 
+    /**
+     * The arguments as a JSON array string, for the generated ActionDispatchers
+     */
+    String toRawArgs() {
+        return baseArgs.toString();
+    }
+
 
     // Pass through the basics to the base args.
     public Object get(int index) throws JSONException {
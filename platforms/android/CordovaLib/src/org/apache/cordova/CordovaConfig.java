@@ -0,0 +1,157 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import android.content.Context;
+
+/**
+ * Immutable snapshot of config.xml: preferences, plugin entries, allow lists and the launch url.
+ *
+ * config.xml is read once per process by {@link #get(Context)}; every consumer
+ * (CordovaActivity, WebViews preloaded outside of an activity) gets its own mutable
+ * copies from the snapshot, so a preloaded WebView is configured exactly like a cold one.
+ * When the app was built with plugin-registry-processor, the snapshot is loaded from the
+ * generated CompiledConfig and res/xml/config.xml is not parsed at all.
+ */
+public final class CordovaConfig {
+    private static final String TAG = "CordovaConfig";
+    private static final String GENERATED_CONFIG = "org.apache.cordova.GeneratedConfig";
+
+    private static CordovaConfig shared;
+
+    private final ConfigXmlParser parser;
+    private final Map<String, String> preferences;
+    // Never changed or handed out; newPreferences() copies share its parsed values
+    private final CordovaPreferences preferenceValues;
+    private final List<PluginEntry> pluginEntries;
+    private final String launchUrl;
+    private final AllowList allowedNavigations;
+    private final AllowList allowedIntents;
+    private final AllowList allowedRequests;
+
+    private CordovaConfig(ConfigXmlParser parser) {
+        this.parser = parser;
+        this.preferences = Collections.unmodifiableMap(new HashMap<String, String>(parser.getPreferences().getAll()));
+        this.preferenceValues = parser.getPreferences().copy();
+        this.pluginEntries = Collections.unmodifiableList(new ArrayList<PluginEntry>(parser.getPluginEntries()));
+        this.launchUrl = parser.getLaunchUrl();
+        this.allowedNavigations = new AllowList(parser.getAllowedNavigations());
+        this.allowedIntents = new AllowList(parser.getAllowedIntents());
+        this.allowedRequests = new AllowList(parser.getAllowedRequests());
+    }
+
+    /**
+     * Returns the process-wide snapshot, parsing config.xml on first use.
+     * Safe to call from any thread.
+     */
+    public static synchronized CordovaConfig get(Context context) {
+        if (shared == null) {
+            long start = System.nanoTime();
+            ConfigXmlParser parser = new ConfigXmlParser();
+            CompiledConfig compiled = loadCompiledConfig();
+            if (compiled != null) {
+                parser.parse(compiled);
+            } else {
+                parser.parse(context);
+            }
+            shared = new CordovaConfig(parser);
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, (compiled != null ? "Loaded compiled" : "Parsed") + " config.xml in "
+                        + (System.nanoTime() - start) / 1000000 + "ms");
+            }
+            // Resolve the plugin classes while the WebView is still being set up
+            PluginClassCache.preload(shared.pluginEntries);
+        }
+        return shared;
+    }
+
+    private static CompiledConfig loadCompiledConfig() {
+        try {
+            return (CompiledConfig) Class.forName(GENERATED_CONFIG).getConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (Exception e) {
+            LOG.e(TAG, "Cannot create " + GENERATED_CONFIG + ", parsing config.xml", e);
+            return null;
+        }
+    }
+
+    /**
+     * Builds a snapshot from an already parsed config, e.g. for tests.
+     */
+    public static CordovaConfig fromParser(ConfigXmlParser parser) {
+        return new CordovaConfig(parser);
+    }
+
+    /**
+     * Returns a new, mutable copy of the preferences.
+     */
+    public CordovaPreferences newPreferences() {
+        return preferenceValues.copy();
+    }
+
+    /**
+     * Returns a new, mutable list of the plugin entries.
+     * The entries only name plugin classes, so each WebView still gets its own plugin instances.
+     */
+    public ArrayList<PluginEntry> newPluginEntries() {
+        return new ArrayList<PluginEntry>(pluginEntries);
+    }
+
+    /**
+     * Returns new allow lists; the compiled patterns are shared between them.
+     */
+    public AllowList newAllowedNavigations() {
+        return new AllowList(allowedNavigations);
+    }
+
+    public AllowList newAllowedIntents() {
+        return new AllowList(allowedIntents);
+    }
+
+    public AllowList newAllowedRequests() {
+        return new AllowList(allowedRequests);
+    }
+
+    public Map<String, String> getPreferences() {
+        return preferences;
+    }
+
+    public List<PluginEntry> getPluginEntries() {
+        return pluginEntries;
+    }
+
+    public String getLaunchUrl() {
+        return launchUrl;
+    }
+
+    /**
+     * The parser this snapshot was built from, for the deprecated {@link Config} statics.
+     */
+    ConfigXmlParser getParser() {
+        return parser;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+import android.content.Context;
+import android.net.Uri;
+import android.net.http.HttpResponseCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Default ICordovaHttpTransport, backed by HttpURLConnection.
+ *
+ * On Android, HttpURLConnection keeps idle connections alive and reuses them as long as
+ * response bodies are fully read and closed, so responses are always handed back as streams
+ * that release the connection on close(). The on-disk cache is the platform HttpResponseCache,
+ * installed with installResponseCache().
+ */
+public class CordovaHttpTransport implements ICordovaHttpTransport {
+    private static final String LOG_TAG = "CordovaHttpTransport";
+
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    private static final String CACHE_DIR_NAME = "cordova-http";
+
+    private volatile int connectTimeoutMs = 0;
+    private volatile int readTimeoutMs = 0;
+
+    /**
+     * Timeouts for new connections. 0 keeps the HttpURLConnection defaults.
+     */
+    @Override
+    public void setTimeouts(int connectTimeoutMs, int readTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    /**
+     * Installs a process-wide on-disk HTTP cache under the app's cache directory,
+     * unless one is already installed.
+     *
+     * @param maxSize   Cache size in bytes.
+     */
+    public static synchronized void installResponseCache(Context context, long maxSize) {
+        if (HttpResponseCache.getInstalled() != null) {
+            return;
+        }
+        try {
+            HttpResponseCache.install(new File(context.getCacheDir(), CACHE_DIR_NAME), maxSize);
+        } catch (IOException e) {
+            LOG.w(LOG_TAG, "Failed to install HTTP response cache", e);
+        }
+    }
+
+    @Override
+    public HttpURLConnection createConnection(Uri uri) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection)new URL(uri.toString()).openConnection();
+        if (connectTimeoutMs > 0) {
+            conn.setConnectTimeout(connectTimeoutMs);
+        }
+        if (readTimeoutMs > 0) {
+            conn.setReadTimeout(readTimeoutMs);
+        }
+        return conn;
+    }
+
+    @Override
+    public Response execute(Uri uri, String method) throws IOException {
+        HttpURLConnection conn = createConnection(uri);
+        boolean isHead = "HEAD".equals(method);
+        conn.setRequestMethod(method);
+        conn.setDoInput(!isHead);
+        conn.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+
+        int statusCode = conn.getResponseCode();
+        String mimeType = conn.getHeaderField("Content-Type");
+        if (mimeType != null) {
+            mimeType = mimeType.split(";")[0];
+        }
+        if (isHead) {
+            // There is no body, so the connection is returned to the pool right away.
+            return new Response(statusCode, mimeType, conn.getContentLength(), null);
+        }
+
+        InputStream inputStream = conn.getInputStream();
+        String encoding = conn.getContentEncoding();
+        long length = conn.getContentLength();
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            inputStream = new GZIPInputStream(inputStream);
+            // The decoded length is not known.
+            length = -1;
+        } else if ("deflate".equalsIgnoreCase(encoding)) {
+            inputStream = new InflaterInputStream(inputStream);
+            length = -1;
+        }
+        return new Response(statusCode, mimeType, length, inputStream);
+    }
+}
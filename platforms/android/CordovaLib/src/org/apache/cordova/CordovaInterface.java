@@ -78,6 +78,18 @@ public interface CordovaInterface {
      */
     public ExecutorService getThreadPool();
 
+    /**
+     * Returns the scope for background work of the current page. Its tasks are cancelled
+     * when the page navigates away or the WebView is destroyed; see TaskScope.
+     *
+     * CordovaInterfaceImpl keeps one scope per instance. Implementations that do not
+     * override this share one process-wide scope, which is never cancelled: one WebView's
+     * page change must not cancel another's tasks. Override it to get page-scoped tasks.
+     */
+    default TaskScope getTaskScope() {
+        return TaskScope.getSharedScope();
+    }
+
     /**
      * Sends a permission request to the activity for one permission.
      */
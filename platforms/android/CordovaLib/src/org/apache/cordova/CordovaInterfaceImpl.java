@@ -42,6 +42,7 @@ public class CordovaInterfaceImpl implements CordovaInterface {
     private static final String TAG = "CordovaInterfaceImpl";
     protected AppCompatActivity activity;
     protected ExecutorService threadPool;
+    protected TaskScope taskScope = new TaskScope();
     protected PluginManager pluginManager;
 
     protected ActivityResultHolder savedResult;
@@ -52,10 +53,23 @@ public class CordovaInterfaceImpl implements CordovaInterface {
     protected boolean activityWasDestroyed = false;
     protected Bundle savedPluginState;
 
+    private static ExecutorService sharedThreadPool;
+
     public CordovaInterfaceImpl(AppCompatActivity activity) {
         this(activity, Executors.newCachedThreadPool());
     }
 
+    /**
+     * A process-wide pool for CordovaInterfaces that live side by side (one per WebView),
+     * so several WebViews do not each keep their own set of idle plugin threads.
+     */
+    public static synchronized ExecutorService getSharedThreadPool() {
+        if (sharedThreadPool == null) {
+            sharedThreadPool = Executors.newCachedThreadPool();
+        }
+        return sharedThreadPool;
+    }
+
     public CordovaInterfaceImpl(AppCompatActivity activity, ExecutorService threadPool) {
         this.activity = activity;
         this.threadPool = threadPool;
@@ -105,6 +119,11 @@ public class CordovaInterfaceImpl implements CordovaInterface {
         return threadPool;
     }
 
+    @Override
+    public TaskScope getTaskScope() {
+        return taskScope;
+    }
+
     /**
      * Dispatches any pending onActivityResult callbacks and sends the resume event if the
      * Activity was destroyed by the OS.
@@ -38,7 +38,18 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 
 /**
- * Plugins must extend this class and override one of the execute methods.
+ * Plugins must extend this class and either override one of the execute methods or mark
+ * their action methods with CordovaAction.
+ *
+ * An exec() call is handled by the first of these that takes the action:
+ *  1. the CordovaAction methods of the plugin's class, and of its superclasses up to the
+ *     nearest one that overrides execute(),
+ *  2. execute(action, rawArgs, ...), then execute(action, JSONArray, ...), then
+ *     execute(action, CordovaArgs, ...), each override calling the next by default,
+ *  3. the remaining inherited CordovaAction methods, reached from CordovaPlugin's
+ *     execute(action, CordovaArgs, ...); an override that returns false without calling
+ *     super hides them.
+ * An execute() override can therefore intercept the annotated actions it inherits.
  */
 public class CordovaPlugin {
     public CordovaWebView webView;
@@ -85,6 +96,8 @@ public class CordovaPlugin {
      * Executes the request.
      *
      * This method is called from the WebView thread. To do a non-trivial amount of work, use:
+     *     cordova.getTaskScope().submit(callbackContext, callable);
+     * which sends the result and is cancelled with the page, or:
      *     cordova.getThreadPool().execute(runnable);
      *
      * To run on the UI thread, use:
@@ -104,6 +117,8 @@ public class CordovaPlugin {
      * Executes the request.
      *
      * This method is called from the WebView thread. To do a non-trivial amount of work, use:
+     *     cordova.getTaskScope().submit(callbackContext, callable);
+     * which sends the result and is cancelled with the page, or:
      *     cordova.getThreadPool().execute(runnable);
      *
      * To run on the UI thread, use:
@@ -123,6 +138,8 @@ public class CordovaPlugin {
      * Executes the request.
      *
      * This method is called from the WebView thread. To do a non-trivial amount of work, use:
+     *     cordova.getTaskScope().submit(callbackContext, callable);
+     * which sends the result and is cancelled with the page, or:
      *     cordova.getThreadPool().execute(runnable);
      *
      * To run on the UI thread, use:
@@ -134,7 +151,11 @@ public class CordovaPlugin {
      * @return                Whether the action was valid.
      */
     public boolean execute(String action, CordovaArgs args, CallbackContext callbackContext) throws JSONException {
-        return false;
+        // Inherited CordovaAction methods that an execute() override above passed on
+        if (!ActionDispatchers.hasDispatchers(getClass())) {
+            return false;
+        }
+        return ActionDispatchers.dispatch(this, action, args.toRawArgs(), callbackContext);
     }
 
     /**
@@ -19,25 +19,121 @@
 
 package org.apache.cordova;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.cordova.LOG;
 
 import android.app.Activity;
 import android.os.Bundle;
 
+/**
+ * The preferences of config.xml (and any set later), by case-insensitive name.
+ *
+ * Values are parsed at most once: booleans when set, numbers on the first numeric read
+ * (most values are not numbers), so the typed getters are a map lookup. Copies made by
+ * CordovaConfig share the parsed values. Names are normalized once per distinct name
+ * string (the callers' constants) instead of lowercased on every call.
+ * Listeners hear about every change, so hot callers can cache what they derive from
+ * preferences (see PluginManager's launch url prefix).
+ */
 public class CordovaPreferences {
-    private HashMap<String, String> prefs = new HashMap<String, String>(20);
+    /**
+     * Called on the thread that changed the preference, with the normalized (lowercase) name
+     */
+    public interface OnPreferenceChangeListener {
+        void onPreferenceChanged(CordovaPreferences preferences, String name);
+    }
+
+    /**
+     * Immutable apart from the parsed numbers, which any thread may fill in (with the same
+     * result), so instances can be shared between copies.
+     */
+    private static final class Value {
+        // Marks a value that did not parse as the number asked for
+        private static final Object NOT_A_NUMBER = new Object();
+
+        final String string;
+        final boolean booleanValue;
+        private volatile Object longValue;
+        private volatile Object doubleValue;
+
+        Value(String string) {
+            this.string = string;
+            this.booleanValue = Boolean.parseBoolean(string);
+        }
+
+        long getLong() {
+            Object parsed = longValue;
+            if (parsed == null) {
+                try {
+                    parsed = Long.decode(string);
+                } catch (NumberFormatException e) {
+                    parsed = NOT_A_NUMBER;
+                }
+                longValue = parsed;
+            }
+            if (parsed == NOT_A_NUMBER) {
+                throw new NumberFormatException("For input string: \"" + string + "\"");
+            }
+            return (Long) parsed;
+        }
+
+        double getDouble() {
+            Object parsed = doubleValue;
+            if (parsed == null) {
+                try {
+                    parsed = Double.parseDouble(string);
+                } catch (NumberFormatException e) {
+                    parsed = NOT_A_NUMBER;
+                }
+                doubleValue = parsed;
+            }
+            if (parsed == NOT_A_NUMBER) {
+                throw new NumberFormatException("For input string: \"" + string + "\"");
+            }
+            return (Double) parsed;
+        }
+    }
+
+    // Preference names are a small, fixed set; names built at runtime past this are not cached
+    private static final int MAX_NORMALIZED_NAMES = 256;
+
+    // Caller's name -> lowercase name, shared by all instances
+    private static final ConcurrentHashMap<String, String> normalizedNames = new ConcurrentHashMap<String, String>();
+
+    private final ConcurrentHashMap<String, Value> prefs = new ConcurrentHashMap<String, Value>(20);
+    private final CopyOnWriteArrayList<OnPreferenceChangeListener> listeners =
+            new CopyOnWriteArrayList<OnPreferenceChangeListener>();
     private Bundle preferencesBundleExtras;
 
+    /**
+     * A new instance with the same values (and none of the listeners); the parsed values
+     * are shared rather than parsed again.
+     */
+    CordovaPreferences copy() {
+        CordovaPreferences copy = new CordovaPreferences();
+        copy.prefs.putAll(prefs);
+        copy.preferencesBundleExtras = preferencesBundleExtras;
+        return copy;
+    }
+
     public void setPreferencesBundle(Bundle extras) {
         preferencesBundleExtras = extras;
     }
 
     public void set(String name, String value) {
-        prefs.put(name.toLowerCase(Locale.ENGLISH), value);
+        name = normalize(name);
+        Value old = prefs.put(name, new Value(value));
+        if (!listeners.isEmpty() && (old == null || !equals(old.string, value))) {
+            for (OnPreferenceChangeListener listener : listeners) {
+                listener.onPreferenceChanged(this, name);
+            }
+        }
     }
 
     public void set(String name, boolean value) {
@@ -52,15 +148,25 @@ public class CordovaPreferences {
         set(name, "" + value);
     }
 
+    /**
+     * A read-only snapshot of all the preferences, by lowercase name.
+     *
+     * This used to return the live map, and writes to it changed the preferences. They
+     * no longer would, so the snapshot throws UnsupportedOperationException on writes
+     * instead of dropping them; use {@link #set(String, String)}.
+     */
     public Map<String, String> getAll() {
-        return prefs;
+        HashMap<String, String> all = new HashMap<String, String>(prefs.size());
+        for (Map.Entry<String, Value> entry : prefs.entrySet()) {
+            all.put(entry.getKey(), entry.getValue().string);
+        }
+        return Collections.unmodifiableMap(all);
     }
 
     public boolean getBoolean(String name, boolean defaultValue) {
-        name = name.toLowerCase(Locale.ENGLISH);
-        String value = prefs.get(name);
+        Value value = get(name);
         if (value != null) {
-            return Boolean.parseBoolean(value);
+            return value.booleanValue;
         }
         return defaultValue;
     }
@@ -71,31 +177,61 @@ public class CordovaPreferences {
     }
 
     public int getInteger(String name, int defaultValue) {
-        name = name.toLowerCase(Locale.ENGLISH);
-        String value = prefs.get(name);
+        Value value = get(name);
         if (value != null) {
             // Use Integer.decode() can't handle it if the highest bit is set.
-            return (int)(long)Long.decode(value);
+            return (int) value.getLong();
         }
         return defaultValue;
     }
 
     public double getDouble(String name, double defaultValue) {
-        name = name.toLowerCase(Locale.ENGLISH);
-        String value = prefs.get(name);
+        Value value = get(name);
         if (value != null) {
-            return Double.valueOf(value);
+            return value.getDouble();
         }
         return defaultValue;
     }
 
     public String getString(String name, String defaultValue) {
-        name = name.toLowerCase(Locale.ENGLISH);
-        String value = prefs.get(name);
+        Value value = get(name);
         if (value != null) {
-            return value;
+            return value.string;
         }
         return defaultValue;
     }
 
+    public void addOnPreferenceChangeListener(OnPreferenceChangeListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeOnPreferenceChangeListener(OnPreferenceChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * The value of a name, or null if it is not set (or set to null)
+     */
+    private Value get(String name) {
+        Value value = prefs.get(normalize(name));
+        return value != null && value.string != null ? value : null;
+    }
+
+    /**
+     * The lowercase form of a preference name, computed once per distinct name
+     */
+    static String normalize(String name) {
+        String normalized = normalizedNames.get(name);
+        if (normalized == null) {
+            normalized = name.toLowerCase(Locale.ENGLISH);
+            if (normalizedNames.size() < MAX_NORMALIZED_NAMES) {
+                normalizedNames.put(name, normalized);
+            }
+        }
+        return normalized;
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.cordova;
 
+import android.content.ComponentCallbacks2;
 import android.content.ContentResolver;
 import android.content.Context;
 import android.content.res.AssetFileDescriptor;
@@ -25,10 +26,8 @@ import android.content.res.AssetManager;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Looper;
-import android.util.Base64;
-import android.webkit.MimeTypeMap;
 
-import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -36,12 +35,15 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.channels.FileChannel;
-import java.util.Locale;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * What this class provides:
@@ -54,6 +56,9 @@ import java.util.zip.GZIPInputStream;
  *     passing the URL onto other utility functions in this class.
  *   - For an example usage of this, refer to the org.apache.cordova.file plugin.
  *
+ * 3. Asynchronous counterparts (openForReadAsync, copyResourceAsync, ...) that run on a
+ *    shared, bounded I/O executor so that I/O concurrency is capped process-wide.
+ *
  * Future Work:
  *   - Consider using a Cursor to query content URLs for their size (like the file plugin does).
  *   - Allow plugins to remapUri to "cdv-plugin://plugin-name/foo", which CordovaResourceApi
@@ -79,11 +84,24 @@ public class CordovaResourceApi {
 
     private static final String[] LOCAL_FILE_PROJECTION = { "_data" };
 
+    // Number of threads in the shared I/O executor. Storage and network rarely benefit from more.
+    private static final int IO_THREAD_COUNT = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long IO_THREAD_KEEP_ALIVE_SECONDS = 30;
+    // Size of each FileChannel transfer when progress is reported or cancellation is possible.
+    private static final long CHANNEL_TRANSFER_CHUNK = 1024 * 1024;
+
     public static Thread jsThread;
 
+    private static ExecutorService ioExecutor;
+
     private final AssetManager assetManager;
     private final ContentResolver contentResolver;
     private final PluginManager pluginManager;
+    private final MimeTypeCache mimeTypeCache = MimeTypeCache.getInstance();
+    // Replaced on the UI thread, used from the IO threads
+    private volatile ICordovaHttpTransport httpTransport = new CordovaHttpTransport();
+    private int httpConnectTimeoutMs = 0;
+    private int httpReadTimeoutMs = 0;
     private boolean threadCheckingEnabled = true;
 
 
@@ -101,6 +119,62 @@ public class CordovaResourceApi {
         return threadCheckingEnabled;
     }
 
+    /**
+     * Replaces the transport used for http[s] URIs, e.g. with one that supports HTTP/2.
+     */
+    public synchronized void setHttpTransport(ICordovaHttpTransport httpTransport) {
+        httpTransport.setTimeouts(httpConnectTimeoutMs, httpReadTimeoutMs);
+        this.httpTransport = httpTransport;
+    }
+
+    /**
+     * Sets the timeouts of http[s] connections, for this transport and any set later.
+     * 0 keeps the transport's defaults.
+     */
+    public synchronized void setHttpTimeouts(int connectTimeoutMs, int readTimeoutMs) {
+        httpConnectTimeoutMs = connectTimeoutMs;
+        httpReadTimeoutMs = readTimeoutMs;
+        httpTransport.setTimeouts(connectTimeoutMs, readTimeoutMs);
+    }
+
+    public ICordovaHttpTransport getHttpTransport() {
+        return httpTransport;
+    }
+
+    /**
+     * Returns the executor that all *Async() methods run on. It is shared by every
+     * CordovaResourceApi instance so that I/O concurrency is capped globally.
+     * Idle threads are released after a short timeout.
+     */
+    public static synchronized ExecutorService getIoExecutor() {
+        if (ioExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(IO_THREAD_COUNT, IO_THREAD_COUNT,
+                    IO_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        private final AtomicInteger count = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "CordovaResourceApi-io-" + count.incrementAndGet());
+                            thread.setPriority(Thread.NORM_PRIORITY - 1);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            ioExecutor = executor;
+        }
+        return ioExecutor;
+    }
+
+    /**
+     * Releases the copy buffers kept between copies when memory runs low.
+     * Hosts forward their onTrimMemory() here; CordovaActivity does.
+     */
+    public static void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            ResourceCopier.trimBufferPool();
+        }
+    }
 
     public static int getUriType(Uri uri) {
         assertNonRelative(uri);
@@ -179,20 +253,21 @@ public class CordovaResourceApi {
                 return getMimeTypeFromPath(uri.getPath());
             case URI_TYPE_CONTENT:
             case URI_TYPE_RESOURCE:
-                return contentResolver.getType(uri);
+                return getContentMimeType(uri);
             case URI_TYPE_DATA: {
                 return getDataUriMimeType(uri);
             }
             case URI_TYPE_HTTP:
             case URI_TYPE_HTTPS: {
+                String mimeType = mimeTypeCache.getUriMimeType(uri);
+                if (mimeType != null) {
+                    return mimeType;
+                }
                 try {
-                    HttpURLConnection conn = (HttpURLConnection)new URL(uri.toString()).openConnection();
-                    conn.setDoInput(false);
-                    conn.setRequestMethod("HEAD");
-                    String mimeType = conn.getHeaderField("Content-Type");
-                    if (mimeType != null) {
-                        mimeType = mimeType.split(";")[0];
-                    }
+                    ICordovaHttpTransport.Response response = httpTransport.execute(uri, "HEAD");
+                    mimeType = response.mimeType;
+                    response.close();
+                    mimeTypeCache.putUriMimeType(uri, mimeType);
                     return mimeType;
                 } catch (IOException e) {
                 }
@@ -203,22 +278,17 @@ public class CordovaResourceApi {
     }
 
 
-    //This already exists
     private String getMimeTypeFromPath(String path) {
-        String extension = path;
-        int lastDot = extension.lastIndexOf('.');
-        if (lastDot != -1) {
-            extension = extension.substring(lastDot + 1);
-        }
-        // Convert the URI string to lower case to ensure compatibility with MimeTypeMap (see CB-2185).
-        extension = extension.toLowerCase(Locale.getDefault());
-        if (extension.equals("3ga")) {
-            return "audio/3gpp";
-        } else if (extension.equals("js")) {
-            // Missing from the map :(.
-            return "text/javascript";
+        return mimeTypeCache.getMimeTypeFromPath(path);
+    }
+
+    private String getContentMimeType(Uri uri) {
+        String mimeType = mimeTypeCache.getUriMimeType(uri);
+        if (mimeType == null) {
+            mimeType = contentResolver.getType(uri);
+            mimeTypeCache.putUriMimeType(uri, mimeType);
         }
-        return MimeTypeMap.getSingleton().getMimeTypeFromExtension(extension);
+        return mimeType;
     }
 
     /**
@@ -271,7 +341,7 @@ public class CordovaResourceApi {
             }
             case URI_TYPE_CONTENT:
             case URI_TYPE_RESOURCE: {
-                String mimeType = contentResolver.getType(uri);
+                String mimeType = getContentMimeType(uri);
                 AssetFileDescriptor assetFd = contentResolver.openAssetFileDescriptor(uri, "r");
                 InputStream inputStream = assetFd.createInputStream();
                 long length = assetFd.getLength();
@@ -286,21 +356,9 @@ public class CordovaResourceApi {
             }
             case URI_TYPE_HTTP:
             case URI_TYPE_HTTPS: {
-                HttpURLConnection conn = (HttpURLConnection)new URL(uri.toString()).openConnection();
-                conn.setRequestProperty("Accept-Encoding", "gzip");
-                conn.setDoInput(true);
-                String mimeType = conn.getHeaderField("Content-Type");
-                if (mimeType != null) {
-                    mimeType = mimeType.split(";")[0];
-                }
-                int length = conn.getContentLength();
-                InputStream inputStream;
-                if ("gzip".equals(conn.getContentEncoding())) {
-                    inputStream = new GZIPInputStream(conn.getInputStream());
-                } else {
-                    inputStream = conn.getInputStream();
-                }
-                return new OpenForReadResult(uri, inputStream, mimeType, length, null);
+                ICordovaHttpTransport.Response response = httpTransport.execute(uri, "GET");
+                mimeTypeCache.putUriMimeType(uri, response.mimeType);
+                return new OpenForReadResult(uri, response.inputStream, response.mimeType, response.contentLength, null);
             }
             case URI_TYPE_PLUGIN: {
                 String pluginId = uri.getHost();
@@ -347,13 +405,22 @@ public class CordovaResourceApi {
 
     public HttpURLConnection createHttpConnection(Uri uri) throws IOException {
         assertBackgroundThread();
-        return (HttpURLConnection)new URL(uri.toString()).openConnection();
+        return httpTransport.createConnection(uri);
     }
 
     // Copies the input to the output in the most efficient manner possible.
     // Closes both streams.
     public void copyResource(OpenForReadResult input, OutputStream outputStream) throws IOException {
+        copyResource(input, outputStream, null, null);
+    }
+
+    // Copies the input to the output, reporting progress to the listener (if any) and stopping
+    // once cancelSignal (if any) is cancelled. Closes both streams.
+    private long copyResource(OpenForReadResult input, OutputStream outputStream, CopyProgressListener listener,
+            CompletableFuture<?> cancelSignal) throws IOException {
         assertBackgroundThread();
+        boolean chunked = listener != null || cancelSignal != null;
+        long bytesCopied = 0;
         try {
             InputStream inputStream = input.inputStream;
             if (inputStream instanceof FileInputStream && outputStream instanceof FileOutputStream) {
@@ -367,19 +434,22 @@ public class CordovaResourceApi {
                 // transferFrom()'s 2nd arg is a relative position. Need to set the absolute
                 // position first.
                 inChannel.position(offset);
-                outChannel.transferFrom(inChannel, 0, length);
-            } else {
-                final int BUFFER_SIZE = 8192;
-                byte[] buffer = new byte[BUFFER_SIZE];
-
-                for (;;) {
-                    int bytesRead = inputStream.read(buffer, 0, BUFFER_SIZE);
-
-                    if (bytesRead <= 0) {
+                if (!chunked) {
+                    return outChannel.transferFrom(inChannel, 0, length);
+                }
+                while (bytesCopied < length) {
+                    ResourceCopier.throwIfCancelled(cancelSignal);
+                    long transferred = outChannel.transferFrom(inChannel, bytesCopied, Math.min(CHANNEL_TRANSFER_CHUNK, length - bytesCopied));
+                    if (transferred <= 0) {
                         break;
                     }
-                    outputStream.write(buffer, 0, bytesRead);
+                    bytesCopied += transferred;
+                    if (listener != null) {
+                        listener.onProgress(bytesCopied, length);
+                    }
                 }
+            } else {
+                bytesCopied = ResourceCopier.copy(inputStream, outputStream, input.length, listener, cancelSignal);
             }
         } finally {
             input.inputStream.close();
@@ -387,8 +457,10 @@ public class CordovaResourceApi {
                 outputStream.close();
             }
         }
+        return bytesCopied;
     }
 
+
     public void copyResource(Uri sourceUri, OutputStream outputStream) throws IOException {
         copyResource(openForRead(sourceUri), outputStream);
     }
@@ -398,6 +470,132 @@ public class CordovaResourceApi {
         copyResource(openForRead(sourceUri), openOutputStream(dstUri));
     }
 
+    /**
+     * Asynchronous version of openForRead(). The stream is opened on the shared I/O executor.
+     * If the returned future is cancelled before it completes, the stream is closed.
+     */
+    public CompletableFuture<OpenForReadResult> openForReadAsync(final Uri uri) {
+        final CompletableFuture<OpenForReadResult> future = new CompletableFuture<OpenForReadResult>();
+        getIoExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    OpenForReadResult result = openForRead(uri);
+                    if (!future.complete(result)) {
+                        closeQuietly(result.inputStream);
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Asynchronous version of openOutputStream(). If the returned future is cancelled before
+     * it completes, the stream is closed.
+     */
+    public CompletableFuture<OutputStream> openOutputStreamAsync(final Uri uri, final boolean append) {
+        final CompletableFuture<OutputStream> future = new CompletableFuture<OutputStream>();
+        getIoExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    OutputStream outputStream = openOutputStream(uri, append);
+                    if (!future.complete(outputStream)) {
+                        closeQuietly(outputStream);
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Asynchronous version of getMimeType(). Useful for http[s] URIs, which issue a HEAD request.
+     */
+    public CompletableFuture<String> getMimeTypeAsync(final Uri uri) {
+        return CompletableFuture.supplyAsync(() -> getMimeType(uri), getIoExecutor());
+    }
+
+    /**
+     * Asynchronous version of mapUriToFile(). Completes with null if the resource is not on
+     * the local filesystem.
+     */
+    public CompletableFuture<File> mapUriToFileAsync(final Uri uri) {
+        return CompletableFuture.supplyAsync(() -> mapUriToFile(uri), getIoExecutor());
+    }
+
+    /**
+     * Asynchronous version of copyResource(). Completes with the number of bytes copied.
+     *
+     * Cancelling the returned future stops the copy at the next buffer boundary and closes
+     * both streams. The listener (which may be null) is called on a background thread.
+     */
+    public CompletableFuture<Long> copyResourceAsync(final Uri sourceUri, final Uri dstUri, final CopyProgressListener listener) {
+        final CompletableFuture<Long> future = new CompletableFuture<Long>();
+        getIoExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    OpenForReadResult input = openForRead(sourceUri);
+                    OutputStream outputStream;
+                    try {
+                        outputStream = openOutputStream(dstUri);
+                    } catch (IOException e) {
+                        closeQuietly(input.inputStream);
+                        throw e;
+                    }
+                    future.complete(copyResource(input, outputStream, listener, future));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Asynchronous version of copyResource() for an already opened input and output.
+     * Both streams are closed once the copy finishes, fails or is cancelled.
+     */
+    public CompletableFuture<Long> copyResourceAsync(final OpenForReadResult input, final OutputStream outputStream, final CopyProgressListener listener) {
+        final CompletableFuture<Long> future = new CompletableFuture<Long>();
+        getIoExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.complete(copyResource(input, outputStream, listener, future));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                LOG.w(LOG_TAG, "Failed to close stream", e);
+            }
+        }
+    }
+
     private void assertBackgroundThread() {
         if (threadCheckingEnabled) {
             Thread curThread = Thread.currentThread();
@@ -440,19 +638,9 @@ public class CordovaResourceApi {
                 base64 = true;
             }
         }
-        String dataPartAsString = uriAsString.substring(commaPos + 1);
-        byte[] data;
-        if (base64) {
-            data = Base64.decode(dataPartAsString, Base64.DEFAULT);
-        } else {
-            try {
-                data = dataPartAsString.getBytes("UTF-8");
-            } catch (UnsupportedEncodingException e) {
-                data = dataPartAsString.getBytes();
-            }
-        }
-        InputStream inputStream = new ByteArrayInputStream(data);
-        return new OpenForReadResult(uri, inputStream, contentType, data.length, null);
+        // Decode lazily so that large payloads are never held in memory twice.
+        DataUriInputStream inputStream = new DataUriInputStream(uriAsString, commaPos + 1, base64);
+        return new OpenForReadResult(uri, inputStream, contentType, inputStream.length(), null);
     }
 
     private static void assertNonRelative(Uri uri) {
@@ -461,6 +649,17 @@ public class CordovaResourceApi {
         }
     }
 
+    /**
+     * Receives progress updates from copyResourceAsync().
+     */
+    public interface CopyProgressListener {
+        /**
+         * @param bytesCopied   Number of bytes written so far.
+         * @param totalBytes    Length of the source, or -1 if it is not known.
+         */
+        void onProgress(long bytesCopied, long totalBytes);
+    }
+
     public static final class OpenForReadResult {
         public final Uri uri;
         public final InputStream inputStream;
@@ -76,12 +76,15 @@ public class CordovaWebViewImpl implements CordovaWebView {
 
     public static CordovaWebViewEngine createEngine(Context context, CordovaPreferences preferences) {
         String className = preferences.getString("webview", SystemWebViewEngine.class.getCanonicalName());
+        StartupTimeline.getInstance().beginSection(StartupTimeline.Mark.WEBVIEW_CONSTRUCTION);
         try {
             Class<?> webViewClass = Class.forName(className);
             Constructor<?> constructor = webViewClass.getConstructor(Context.class, CordovaPreferences.class);
             return (CordovaWebViewEngine) constructor.newInstance(context, preferences);
         } catch (Exception e) {
             throw new RuntimeException("Failed to create webview. ", e);
+        } finally {
+            StartupTimeline.getInstance().endSection(StartupTimeline.Mark.WEBVIEW_CONSTRUCTION);
         }
     }
 
@@ -100,23 +103,43 @@ public class CordovaWebViewImpl implements CordovaWebView {
         if (this.cordova != null) {
             throw new IllegalStateException();
         }
-        this.cordova = cordova;
-        this.preferences = preferences;
-        pluginManager = new PluginManager(this, this.cordova, pluginEntries);
-        resourceApi = new CordovaResourceApi(engine.getView().getContext(), pluginManager);
-        nativeToJsMessageQueue = new NativeToJsMessageQueue();
-        nativeToJsMessageQueue.addBridgeMode(new NativeToJsMessageQueue.NoOpBridgeMode());
-        nativeToJsMessageQueue.addBridgeMode(new NativeToJsMessageQueue.LoadUrlBridgeMode(engine, cordova));
-
-        if (preferences.getBoolean("DisallowOverscroll", false)) {
-            engine.getView().setOverScrollMode(View.OVER_SCROLL_NEVER);
-        }
-        engine.init(this, cordova, engineClient, resourceApi, pluginManager, nativeToJsMessageQueue);
-        // This isn't enforced by the compiler, so assert here.
-        assert engine.getView() instanceof CordovaWebViewEngine.EngineView;
+        StartupTimeline.getInstance().beginSection(StartupTimeline.Mark.CORDOVA_INIT);
+        try {
+            this.cordova = cordova;
+            this.preferences = preferences;
+            pluginManager = new PluginManager(this, this.cordova, pluginEntries);
+            resourceApi = new CordovaResourceApi(engine.getView().getContext(), pluginManager);
+            final int httpConnectTimeout = preferences.getInteger("HttpConnectTimeout", 0);
+            final int httpReadTimeout = preferences.getInteger("HttpReadTimeout", 0);
+            if (httpConnectTimeout > 0 || httpReadTimeout > 0) {
+                resourceApi.setHttpTimeouts(httpConnectTimeout, httpReadTimeout);
+            }
+            final int httpResponseCacheSize = preferences.getInteger("HttpResponseCacheSize", 0);
+            if (httpResponseCacheSize > 0) {
+                final Context appContext = engine.getView().getContext().getApplicationContext();
+                CordovaResourceApi.getIoExecutor().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        CordovaHttpTransport.installResponseCache(appContext, httpResponseCacheSize);
+                    }
+                });
+            }
+            nativeToJsMessageQueue = new NativeToJsMessageQueue();
+            nativeToJsMessageQueue.addBridgeMode(new NativeToJsMessageQueue.NoOpBridgeMode());
+            nativeToJsMessageQueue.addBridgeMode(new NativeToJsMessageQueue.LoadUrlBridgeMode(engine, cordova));
 
-        pluginManager.addService(CoreAndroid.PLUGIN_NAME, "org.apache.cordova.CoreAndroid", true);
-        pluginManager.init();
+            if (preferences.getBoolean("DisallowOverscroll", false)) {
+                engine.getView().setOverScrollMode(View.OVER_SCROLL_NEVER);
+            }
+            engine.init(this, cordova, engineClient, resourceApi, pluginManager, nativeToJsMessageQueue);
+            // This isn't enforced by the compiler, so assert here.
+            assert engine.getView() instanceof CordovaWebViewEngine.EngineView;
+
+            pluginManager.addService(CoreAndroid.PLUGIN_NAME, "org.apache.cordova.CoreAndroid", true);
+            pluginManager.init();
+        } finally {
+            StartupTimeline.getInstance().endSection(StartupTimeline.Mark.CORDOVA_INIT);
+        }
     }
 
     @Override
@@ -126,7 +149,9 @@ public class CordovaWebViewImpl implements CordovaWebView {
 
     @Override
     public void loadUrlIntoView(final String url, boolean recreatePlugins) {
-        LOG.d(TAG, ">>> loadUrl(" + url + ")");
+        if (LOG.isLoggable(LOG.DEBUG)) {
+            LOG.d(TAG, ">>> loadUrl(" + url + ")");
+        }
         if (url.equals("about:blank") || url.startsWith("javascript:")) {
             engine.loadUrl(url, false);
             return;
@@ -179,29 +204,24 @@ public class CordovaWebViewImpl implements CordovaWebView {
                     e.printStackTrace();
                 }
 
-                // If timeout, then stop loading and handle error (if activity still exists)
-                if (loadUrlTimeout == currentLoadUrlTimeout && cordova.getActivity() != null) {
-                    cordova.getActivity().runOnUiThread(loadError);
-                } else if (cordova.getActivity() == null) {
-                    LOG.d(TAG, "Cordova activity does not exist.");
+                // If timeout, then stop loading and handle error
+                if (loadUrlTimeout == currentLoadUrlTimeout) {
+                    UiThreadHelper.runOnUiThread(cordova, loadError);
                 }
             }
         };
 
-        if (cordova.getActivity() != null) {
-            final boolean _recreatePlugins = recreatePlugins;
-            cordova.getActivity().runOnUiThread(new Runnable() {
-                @Override
-                public void run() {
-                    if (loadUrlTimeoutValue > 0) {
-                        cordova.getThreadPool().execute(timeoutCheck);
-                    }
-                    engine.loadUrl(url, _recreatePlugins);
+        // The activity may be null when the WebView is preloaded outside of an activity.
+        final boolean _recreatePlugins = recreatePlugins;
+        UiThreadHelper.runOnUiThread(cordova, new Runnable() {
+            @Override
+            public void run() {
+                if (loadUrlTimeoutValue > 0) {
+                    cordova.getThreadPool().execute(timeoutCheck);
                 }
-            });
-        } else {
-            LOG.d(TAG, "Cordova activity does not exist.");
-        }
+                engine.loadUrl(url, _recreatePlugins);
+            }
+        });
     }
 
 
@@ -212,7 +232,9 @@ public class CordovaWebViewImpl implements CordovaWebView {
 
     @Override
     public void showWebPage(String url, boolean openExternal, boolean clearHistory, Map<String, Object> params) {
-        LOG.d(TAG, "showWebPage(%s, %b, %b, HashMap)", url, openExternal, clearHistory);
+        if (LOG.isLoggable(LOG.DEBUG)) {
+            LOG.d(TAG, "showWebPage(%s, %b, %b, HashMap)", url, openExternal, clearHistory);
+        }
 
         // If clearing history
         if (clearHistory) {
@@ -550,7 +572,10 @@ public class CordovaWebViewImpl implements CordovaWebView {
 
         @Override
         public void onPageStarted(String newUrl) {
-            LOG.d(TAG, "onPageDidNavigate(" + newUrl + ")");
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, "onPageDidNavigate(" + newUrl + ")");
+            }
+            StartupTimeline.getInstance().mark(StartupTimeline.Mark.PAGE_STARTED);
             boundKeyCodes.clear();
             pluginManager.onReset();
             pluginManager.postMessage("onPageStarted", newUrl);
@@ -572,7 +597,10 @@ public class CordovaWebViewImpl implements CordovaWebView {
 
         @Override
         public void onPageFinishedLoading(String url) {
-            LOG.d(TAG, "onPageFinished(" + url + ")");
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, "onPageFinished(" + url + ")");
+            }
+            StartupTimeline.getInstance().mark(StartupTimeline.Mark.PAGE_FINISHED);
 
             clearLoadTimeoutTimer();
 
@@ -586,16 +614,12 @@ public class CordovaWebViewImpl implements CordovaWebView {
                     public void run() {
                         try {
                             Thread.sleep(2000);
-                            if (cordova.getActivity() != null) {
-                                cordova.getActivity().runOnUiThread(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        pluginManager.postMessage("spinner", "stop");
-                                    }
-                                });
-                            } else {
-                                LOG.d(TAG, "Cordova activity does not exist.");
-                            }
+                            UiThreadHelper.runOnUiThread(cordova, new Runnable() {
+                                @Override
+                                public void run() {
+                                    pluginManager.postMessage("spinner", "stop");
+                                }
+                            });
                         } catch (InterruptedException e) {
                         }
                     }
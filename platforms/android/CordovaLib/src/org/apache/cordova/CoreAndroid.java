@@ -66,74 +66,60 @@ public class CoreAndroid extends CordovaPlugin {
     }
 
     /**
-     * Executes the request and returns PluginResult.
+     * Executes the request through the CordovaAction methods below, for callers of
+     * execute() and subclasses that override it and call super.
+     * Unknown actions succeed with an empty message, as they always have here.
      *
      * @param action            The action to execute.
      * @param args              JSONArry of arguments for the plugin.
      * @param callbackContext   The callback context from which we were invoked.
-     * @return                  A PluginResult object with a status and message.
+     * @return                  Always true.
      */
     @Override
     public boolean execute(String action, JSONArray args, CallbackContext callbackContext) throws JSONException {
-        PluginResult.Status status = PluginResult.Status.OK;
-        String result = "";
+        if (!ActionDispatchers.dispatch(this, action, args.toString(), callbackContext)) {
+            callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, ""));
+        }
+        return true;
+    }
 
-        try {
-            if (action.equals("clearCache")) {
-                this.clearCache();
-            }
-            else if (action.equals("show")) {
-                // This gets called from JavaScript onCordovaReady to show the webview.
-                // I recommend we change the name of the Message as spinner/stop is not
-                // indicative of what this actually does (shows the webview).
-                cordova.getActivity().runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        webView.getPluginManager().postMessage("spinner", "stop");
-                    }
-                });
-            }
-            else if (action.equals("loadUrl")) {
-                this.loadUrl(args.getString(0), args.optJSONObject(1));
-            }
-            else if (action.equals("cancelLoadUrl")) {
-                //this.cancelLoadUrl();
-            }
-            else if (action.equals("clearHistory")) {
-                this.clearHistory();
-            }
-            else if (action.equals("backHistory")) {
-                this.backHistory();
-            }
-            else if (action.equals("overrideButton")) {
-                this.overrideButton(args.getString(0), args.getBoolean(1));
-            }
-            else if (action.equals("overrideBackbutton")) {
-                this.overrideBackbutton(args.getBoolean(0));
+    /**
+     * Show the webview.
+     * This gets called from JavaScript onCordovaReady to show the webview.
+     * I recommend we change the name of the Message as spinner/stop is not
+     * indicative of what this actually does (shows the webview).
+     */
+    @CordovaAction
+    void show() {
+        UiThreadHelper.runOnUiThread(cordova, new Runnable() {
+            @Override
+            public void run() {
+                webView.getPluginManager().postMessage("spinner", "stop");
             }
-            else if (action.equals("exitApp")) {
-                this.exitApp();
+        });
+    }
+
+    @CordovaAction
+    void cancelLoadUrl() {
+        //this.cancelLoadUrl();
+    }
+
+    /**
+     * Keep the callback of the page's channel for lifecycle events, and send it the
+     * pause and resume events that happened before it was opened.
+     */
+    @CordovaAction
+    void messageChannel(CallbackContext callbackContext) {
+        synchronized(messageChannelLock) {
+            messageChannel = callbackContext;
+            if (pendingPause != null) {
+                sendEventMessage(pendingPause);
+                pendingPause = null;
             }
-			else if (action.equals("messageChannel")) {
-                synchronized(messageChannelLock) {
-                    messageChannel = callbackContext;
-                    if (pendingPause != null) {
-                        sendEventMessage(pendingPause);
-                        pendingPause = null;
-                    }
-                    if (pendingResume != null) {
-                        sendEventMessage(pendingResume);
-                        pendingResume = null;
-                    }
-                }
-                return true;
+            if (pendingResume != null) {
+                sendEventMessage(pendingResume);
+                pendingResume = null;
             }
-
-            callbackContext.sendPluginResult(new PluginResult(status, result));
-            return true;
-        } catch (JSONException e) {
-            callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.JSON_EXCEPTION));
-            return false;
         }
     }
 
@@ -144,8 +130,9 @@ public class CoreAndroid extends CordovaPlugin {
     /**
      * Clear the resource cache.
      */
+    @CordovaAction
     public void clearCache() {
-        cordova.getActivity().runOnUiThread(new Runnable() {
+        UiThreadHelper.runOnUiThread(cordova, new Runnable() {
             @Override
             public void run() {
                 webView.clearCache();
@@ -160,7 +147,8 @@ public class CoreAndroid extends CordovaPlugin {
      * @param props			Properties that can be passed in to the Cordova activity (i.e. loadingDialog, wait, ...)
      * @throws JSONException
      */
-    public void loadUrl(String url, JSONObject props) throws JSONException {
+    @CordovaAction
+    public void loadUrl(String url, @CordovaAction.Optional JSONObject props) throws JSONException {
         LOG.d("App", "App.loadUrl("+url+","+props+")");
         int wait = 0;
         boolean openExternal = false;
@@ -216,8 +204,9 @@ public class CoreAndroid extends CordovaPlugin {
     /**
      * Clear page history for the app.
      */
+    @CordovaAction
     public void clearHistory() {
-        cordova.getActivity().runOnUiThread(new Runnable() {
+        UiThreadHelper.runOnUiThread(cordova, new Runnable() {
             @Override
             public void run() {
                 webView.clearHistory();
@@ -229,8 +218,9 @@ public class CoreAndroid extends CordovaPlugin {
      * Go to previous page displayed.
      * This is the same as pressing the backbutton on Android device.
      */
+    @CordovaAction
     public void backHistory() {
-        cordova.getActivity().runOnUiThread(new Runnable() {
+        UiThreadHelper.runOnUiThread(cordova, new Runnable() {
             @Override
             public void run() {
                 webView.backHistory();
@@ -244,6 +234,7 @@ public class CoreAndroid extends CordovaPlugin {
      *
      * @param override		T=override, F=cancel override
      */
+    @CordovaAction
     public void overrideBackbutton(boolean override) {
         LOG.i("App", "WARNING: Back Button Default Behavior will be overridden.  The backbutton event will be fired!");
         webView.setButtonPlumbedToJs(KeyEvent.KEYCODE_BACK, override);
@@ -256,6 +247,7 @@ public class CoreAndroid extends CordovaPlugin {
      * @param button        volumeup, volumedown
      * @param override      T=override, F=cancel override
      */
+    @CordovaAction
     public void overrideButton(String button, boolean override) {
         LOG.i("App", "WARNING: Volume Button Default Behavior will be overridden.  The volume event will be fired!");
         if (button.equals("volumeup")) {
@@ -281,6 +273,7 @@ public class CoreAndroid extends CordovaPlugin {
     /**
      * Exit the Android application.
      */
+    @CordovaAction
     public void exitApp() {
         this.webView.getPluginManager().postMessage("exit", null);
     }
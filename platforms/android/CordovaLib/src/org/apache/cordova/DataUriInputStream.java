@@ -0,0 +1,219 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams the payload of a data: URI without materializing it as a byte array.
+ *
+ * Base64 payloads are decoded four characters at a time, and text payloads are encoded
+ * to UTF-8 one character at a time, so memory use does not depend on the payload size.
+ * The decoded length is computed up front with a single pass that allocates nothing.
+ */
+class DataUriInputStream extends InputStream {
+    private static final int[] BASE64_DECODE_TABLE = new int[128];
+    static {
+        for (int i = 0; i < BASE64_DECODE_TABLE.length; ++i) {
+            BASE64_DECODE_TABLE[i] = -1;
+        }
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); ++i) {
+            BASE64_DECODE_TABLE[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private final String data;
+    private final int end;
+    private final boolean base64;
+    private final long length;
+    private int pos;
+    private long bytesRead;
+
+    // Bytes decoded from the current group that have not been returned yet.
+    private final byte[] pending = new byte[4];
+    private int pendingPos;
+    private int pendingLen;
+
+    /**
+     * @param data      The scheme-specific part of the URI.
+     * @param start     Index of the first payload character (after the comma).
+     * @param base64    Whether the payload is base64 encoded.
+     */
+    DataUriInputStream(String data, int start, boolean base64) {
+        this.data = data;
+        this.pos = start;
+        this.end = data.length();
+        this.base64 = base64;
+        this.length = base64 ? computeBase64Length(data, start, end) : computeUtf8Length(data, start, end);
+    }
+
+    /**
+     * Returns the number of bytes the stream will produce in total.
+     */
+    long length() {
+        return length;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static long computeBase64Length(String data, int start, int end) {
+        long chars = 0;
+        for (int i = start; i < end; ++i) {
+            char c = data.charAt(i);
+            if (c == '=') {
+                break;
+            }
+            if (!isWhitespace(c)) {
+                ++chars;
+            }
+        }
+        long remainder = chars % 4;
+        return (chars / 4) * 3 + (remainder > 1 ? remainder - 1 : 0);
+    }
+
+    private static long computeUtf8Length(String data, int start, int end) {
+        long bytes = 0;
+        for (int i = start; i < end; ++i) {
+            char c = data.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(data.charAt(i + 1))) {
+                bytes += 4;
+                ++i;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are replaced with '?', as String.getBytes() does.
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pendingPos == pendingLen && !fill()) {
+            return -1;
+        }
+        ++bytesRead;
+        return pending[pendingPos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        int written = 0;
+        while (written < count) {
+            if (pendingPos == pendingLen && !fill()) {
+                break;
+            }
+            int n = Math.min(count - written, pendingLen - pendingPos);
+            System.arraycopy(pending, pendingPos, buffer, offset + written, n);
+            pendingPos += n;
+            written += n;
+        }
+        bytesRead += written;
+        return written == 0 ? -1 : written;
+    }
+
+    @Override
+    public int available() {
+        return (int)Math.min(length - bytesRead, Integer.MAX_VALUE);
+    }
+
+    private boolean fill() throws IOException {
+        pendingPos = 0;
+        pendingLen = 0;
+        return base64 ? fillBase64() : fillUtf8();
+    }
+
+    private boolean fillBase64() throws IOException {
+        int bits = 0;
+        int count = 0;
+        while (count < 4 && pos < end) {
+            char c = data.charAt(pos++);
+            if (isWhitespace(c)) {
+                continue;
+            }
+            if (c == '=') {
+                // Padding ends the payload.
+                pos = end;
+                break;
+            }
+            int value = c < 128 ? BASE64_DECODE_TABLE[c] : -1;
+            if (value == -1) {
+                throw new IOException("Invalid base64 character in data URI at index " + (pos - 1));
+            }
+            bits = (bits << 6) | value;
+            ++count;
+        }
+        if (count == 0) {
+            return false;
+        }
+        if (count == 1) {
+            throw new IOException("Truncated base64 data in data URI");
+        }
+        // Left-align partial groups as if they had been padded with zeros.
+        bits <<= 6 * (4 - count);
+        pending[0] = (byte)(bits >> 16);
+        pending[1] = (byte)(bits >> 8);
+        pending[2] = (byte)bits;
+        pendingLen = count - 1;
+        return true;
+    }
+
+    private boolean fillUtf8() {
+        if (pos >= end) {
+            return false;
+        }
+        char c = data.charAt(pos++);
+        if (c < 0x80) {
+            pending[0] = (byte)c;
+            pendingLen = 1;
+        } else if (c < 0x800) {
+            pending[0] = (byte)(0xc0 | (c >> 6));
+            pending[1] = (byte)(0x80 | (c & 0x3f));
+            pendingLen = 2;
+        } else if (Character.isHighSurrogate(c) && pos < end && Character.isLowSurrogate(data.charAt(pos))) {
+            int codePoint = Character.toCodePoint(c, data.charAt(pos++));
+            pending[0] = (byte)(0xf0 | (codePoint >> 18));
+            pending[1] = (byte)(0x80 | ((codePoint >> 12) & 0x3f));
+            pending[2] = (byte)(0x80 | ((codePoint >> 6) & 0x3f));
+            pending[3] = (byte)(0x80 | (codePoint & 0x3f));
+            pendingLen = 4;
+        } else if (Character.isSurrogate(c)) {
+            pending[0] = (byte)'?';
+            pendingLen = 1;
+        } else {
+            pending[0] = (byte)(0xe0 | (c >> 12));
+            pending[1] = (byte)(0x80 | ((c >> 6) & 0x3f));
+            pending[2] = (byte)(0x80 | (c & 0x3f));
+            pendingLen = 3;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+import android.net.Uri;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+
+/**
+ * The HTTP transport used by CordovaResourceApi for http[s] URIs.
+ *
+ * The default implementation is CordovaHttpTransport, which uses HttpURLConnection.
+ * Apps can supply their own (e.g. one backed by OkHttp or Cronet for HTTP/2 and brotli)
+ * through CordovaResourceApi.setHttpTransport().
+ */
+public interface ICordovaHttpTransport {
+
+    /**
+     * Performs a request and returns once the response headers have been received.
+     *
+     * @param uri       An http or https URI.
+     * @param method    The request method, e.g. "GET" or "HEAD".
+     * @return Never returns null. The caller must close the response.
+     */
+    public Response execute(Uri uri, String method) throws IOException;
+
+    /**
+     * Opens a raw connection for callers that need full control over the request.
+     */
+    public HttpURLConnection createConnection(Uri uri) throws IOException;
+
+    /**
+     * Sets the timeouts of new connections; 0 keeps the transport's defaults.
+     * CordovaResourceApi passes on the HttpConnectTimeout and HttpReadTimeout preferences,
+     * also to transports installed later. Transports without timeouts may ignore it.
+     */
+    default void setTimeouts(int connectTimeoutMs, int readTimeoutMs) {
+    }
+
+    /**
+     * The result of execute(). Closing it releases the underlying connection for reuse.
+     */
+    public static class Response {
+        public final int statusCode;
+        public final String mimeType;
+        public final long contentLength;
+        public final InputStream inputStream;
+
+        public Response(int statusCode, String mimeType, long contentLength, InputStream inputStream) {
+            this.statusCode = statusCode;
+            this.mimeType = mimeType;
+            this.contentLength = contentLength;
+            this.inputStream = inputStream;
+        }
+
+        public void close() throws IOException {
+            if (inputStream != null) {
+                inputStream.close();
+            }
+        }
+    }
+}
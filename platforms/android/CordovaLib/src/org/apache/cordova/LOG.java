@@ -18,6 +18,10 @@
 */
 package org.apache.cordova;
 
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.function.Supplier;
+
 import android.util.Log;
 
 /**
@@ -25,6 +29,13 @@ import android.util.Log;
  *
  * Log message can be a string or a printf formatted string with arguments.
  * See http://developer.android.com/reference/java/util/Formatter.html
+ *
+ * Messages that pass the level check go to the LogBackend set with setBackend(),
+ * unformatted; by default they are formatted and written to android.util.Log right away.
+ *
+ * Messages that are expensive to build should be passed as a Supplier, or the call guarded
+ * with isLoggable(), so nothing is allocated when the level is off. Release builds can strip
+ * verbose and debug calls entirely with cordova-strip-logging.pro.
  */
 public class LOG {
 
@@ -37,6 +48,46 @@ public class LOG {
     // Current log level
     public static int LOGLEVEL = Log.ERROR;
 
+    private static final LogBackend ANDROID_LOG = new LogBackend() {
+        @Override
+        public void log(int priority, String tag, String format, Object[] args, Throwable error) {
+            Log.println(priority, tag, format(format, args, error));
+        }
+    };
+
+    private static volatile LogBackend backend = ANDROID_LOG;
+
+    /**
+     * Send log messages to the given backend; null for android.util.Log
+     */
+    public static void setBackend(LogBackend logBackend) {
+        backend = logBackend != null ? logBackend : ANDROID_LOG;
+    }
+
+    public static LogBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * The text of a message as android.util.Log would write it: the format applied to
+     * its arguments (if any), followed by the stack trace of the error (if any)
+     */
+    public static String format(String format, Object[] args, Throwable error) {
+        String message = format;
+        if (args != null) {
+            try {
+                message = String.format(format, args);
+            } catch (IllegalFormatException e) {
+                message = format + " " + Arrays.toString(args);
+            }
+        }
+        if (error != null) {
+            String trace = Log.getStackTraceString(error);
+            message = message != null ? message + '\n' + trace : trace;
+        }
+        return message != null ? message : "";
+    }
+
     /**
      * Set the current log level.
      *
@@ -78,7 +129,7 @@ public class LOG {
      * @param s
      */
     public static void v(String tag, String s) {
-        if (LOG.VERBOSE >= LOGLEVEL) Log.v(tag, s);
+        if (LOG.VERBOSE >= LOGLEVEL) backend.log(VERBOSE, tag, s, null, null);
     }
 
     /**
@@ -88,7 +139,7 @@ public class LOG {
      * @param s
      */
     public static void d(String tag, String s) {
-        if (LOG.DEBUG >= LOGLEVEL) Log.d(tag, s);
+        if (LOG.DEBUG >= LOGLEVEL) backend.log(DEBUG, tag, s, null, null);
     }
 
     /**
@@ -98,7 +149,7 @@ public class LOG {
      * @param s
      */
     public static void i(String tag, String s) {
-        if (LOG.INFO >= LOGLEVEL) Log.i(tag, s);
+        if (LOG.INFO >= LOGLEVEL) backend.log(INFO, tag, s, null, null);
     }
 
     /**
@@ -108,7 +159,7 @@ public class LOG {
      * @param s
      */
     public static void w(String tag, String s) {
-        if (LOG.WARN >= LOGLEVEL) Log.w(tag, s);
+        if (LOG.WARN >= LOGLEVEL) backend.log(WARN, tag, s, null, null);
     }
 
     /**
@@ -118,7 +169,7 @@ public class LOG {
      * @param s
      */
     public static void e(String tag, String s) {
-        if (LOG.ERROR >= LOGLEVEL) Log.e(tag, s);
+        if (LOG.ERROR >= LOGLEVEL) backend.log(ERROR, tag, s, null, null);
     }
 
     /**
@@ -129,7 +180,7 @@ public class LOG {
      * @param e
      */
     public static void v(String tag, String s, Throwable e) {
-        if (LOG.VERBOSE >= LOGLEVEL) Log.v(tag, s, e);
+        if (LOG.VERBOSE >= LOGLEVEL) backend.log(VERBOSE, tag, s, null, e);
     }
 
     /**
@@ -140,7 +191,7 @@ public class LOG {
      * @param e
      */
     public static void d(String tag, String s, Throwable e) {
-        if (LOG.DEBUG >= LOGLEVEL) Log.d(tag, s, e);
+        if (LOG.DEBUG >= LOGLEVEL) backend.log(DEBUG, tag, s, null, e);
     }
 
     /**
@@ -151,7 +202,7 @@ public class LOG {
      * @param e
      */
     public static void i(String tag, String s, Throwable e) {
-        if (LOG.INFO >= LOGLEVEL) Log.i(tag, s, e);
+        if (LOG.INFO >= LOGLEVEL) backend.log(INFO, tag, s, null, e);
     }
 
     /**
@@ -161,7 +212,7 @@ public class LOG {
      * @param e
      */
     public static void w(String tag, Throwable e) {
-        if (LOG.WARN >= LOGLEVEL) Log.w(tag, e);
+        if (LOG.WARN >= LOGLEVEL) backend.log(WARN, tag, null, null, e);
     }
 
     /**
@@ -172,7 +223,7 @@ public class LOG {
      * @param e
      */
     public static void w(String tag, String s, Throwable e) {
-        if (LOG.WARN >= LOGLEVEL) Log.w(tag, s, e);
+        if (LOG.WARN >= LOGLEVEL) backend.log(WARN, tag, s, null, e);
     }
 
     /**
@@ -183,7 +234,7 @@ public class LOG {
      * @param e
      */
     public static void e(String tag, String s, Throwable e) {
-        if (LOG.ERROR >= LOGLEVEL) Log.e(tag, s, e);
+        if (LOG.ERROR >= LOGLEVEL) backend.log(ERROR, tag, s, null, e);
     }
 
     /**
@@ -194,7 +245,7 @@ public class LOG {
      * @param args
      */
     public static void v(String tag, String s, Object... args) {
-        if (LOG.VERBOSE >= LOGLEVEL) Log.v(tag, String.format(s, args));
+        if (LOG.VERBOSE >= LOGLEVEL) backend.log(VERBOSE, tag, s, args, null);
     }
 
     /**
@@ -205,7 +256,7 @@ public class LOG {
      * @param args
      */
     public static void d(String tag, String s, Object... args) {
-        if (LOG.DEBUG >= LOGLEVEL) Log.d(tag, String.format(s, args));
+        if (LOG.DEBUG >= LOGLEVEL) backend.log(DEBUG, tag, s, args, null);
     }
 
     /**
@@ -216,7 +267,7 @@ public class LOG {
      * @param args
      */
     public static void i(String tag, String s, Object... args) {
-        if (LOG.INFO >= LOGLEVEL) Log.i(tag, String.format(s, args));
+        if (LOG.INFO >= LOGLEVEL) backend.log(INFO, tag, s, args, null);
     }
 
     /**
@@ -227,7 +278,7 @@ public class LOG {
      * @param args
      */
     public static void w(String tag, String s, Object... args) {
-        if (LOG.WARN >= LOGLEVEL) Log.w(tag, String.format(s, args));
+        if (LOG.WARN >= LOGLEVEL) backend.log(WARN, tag, s, args, null);
     }
 
     /**
@@ -238,7 +289,37 @@ public class LOG {
      * @param args
      */
     public static void e(String tag, String s, Object... args) {
-        if (LOG.ERROR >= LOGLEVEL) Log.e(tag, String.format(s, args));
+        if (LOG.ERROR >= LOGLEVEL) backend.log(ERROR, tag, s, args, null);
+    }
+
+    /**
+     * Verbose log message, built only if verbose logging is enabled.
+     *
+     * @param tag
+     * @param message
+     */
+    public static void v(String tag, Supplier<String> message) {
+        if (LOG.VERBOSE >= LOGLEVEL) backend.log(VERBOSE, tag, message.get(), null, null);
+    }
+
+    /**
+     * Debug log message, built only if debug logging is enabled.
+     *
+     * @param tag
+     * @param message
+     */
+    public static void d(String tag, Supplier<String> message) {
+        if (LOG.DEBUG >= LOGLEVEL) backend.log(DEBUG, tag, message.get(), null, null);
+    }
+
+    /**
+     * Info log message, built only if info logging is enabled.
+     *
+     * @param tag
+     * @param message
+     */
+    public static void i(String tag, Supplier<String> message) {
+        if (LOG.INFO >= LOGLEVEL) backend.log(INFO, tag, message.get(), null, null);
     }
 
 }
@@ -0,0 +1,33 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+/**
+ * Where LOG sends the messages that pass its level check (see LOG.setBackend).
+ * The default writes to android.util.Log right away; AsyncLogBackend hands them to a
+ * background writer.
+ *
+ * Messages arrive unformatted: args is null for plain messages, or the printf arguments
+ * of format, so a backend can format them off the calling thread (see format()).
+ * Implementations are called from any thread and must not block.
+ */
+public interface LogBackend {
+    void log(int priority, String tag, String format, Object[] args, Throwable error);
+}
@@ -0,0 +1,177 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import android.webkit.MimeTypeMap;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches MIME type lookups so that repeated requests for the same resource do not
+ * go back to MimeTypeMap, the ContentResolver or the network.
+ *
+ * - Extensions (file: and asset URIs) are cached forever, since MimeTypeMap is static.
+ * - content:, android.resource: and http[s] URIs are cached per-URI for a limited time.
+ *
+ * A single instance is shared by CordovaResourceApi and SystemWebViewClient.
+ */
+public class MimeTypeCache {
+    private static final int MAX_URI_ENTRIES = 256;
+    private static final long DEFAULT_URI_TTL_MS = 60 * 1000;
+
+    // Marks extensions that MimeTypeMap does not know about, so they are not looked up again.
+    private static final String NO_MIME_TYPE = "";
+    // Longer "extensions" are not cached, so odd paths cannot grow the unbounded extension cache
+    private static final int MAX_CACHED_EXTENSION_LENGTH = 8;
+
+    private static final MimeTypeCache instance = new MimeTypeCache();
+
+    private final ConcurrentHashMap<String, String> extensionCache = new ConcurrentHashMap<String, String>();
+    private final LinkedHashMap<String, UriEntry> uriCache = new LinkedHashMap<String, UriEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UriEntry> eldest) {
+            return size() > MAX_URI_ENTRIES;
+        }
+    };
+    private volatile long uriTtlMs = DEFAULT_URI_TTL_MS;
+
+    public static MimeTypeCache getInstance() {
+        return instance;
+    }
+
+    MimeTypeCache() {
+        // Types that are missing from (or wrong in) MimeTypeMap.
+        extensionCache.put("js", "application/javascript");
+        // Make sure ES modules get the proper mimetype
+        extensionCache.put("mjs", "application/javascript");
+        extensionCache.put("wasm", "application/wasm");
+        extensionCache.put("3ga", "audio/3gpp");
+    }
+
+    /**
+     * Returns the MIME type for a file extension (without the dot), or null if unknown.
+     */
+    public String getMimeTypeFromExtension(String extension) {
+        if (extension == null) {
+            return null;
+        }
+        // Convert to lower case to ensure compatibility with MimeTypeMap (see CB-2185).
+        extension = extension.toLowerCase(Locale.ENGLISH);
+        String mimeType = extensionCache.get(extension);
+        if (mimeType == null) {
+            mimeType = MimeTypeMap.getSingleton().getMimeTypeFromExtension(extension);
+            if (!isPlausibleExtension(extension)) {
+                return mimeType;
+            }
+            if (mimeType == null) {
+                mimeType = NO_MIME_TYPE;
+            }
+            extensionCache.put(extension, mimeType);
+        }
+        return mimeType == NO_MIME_TYPE ? null : mimeType;
+    }
+
+    /**
+     * Returns the MIME type for the extension of the given path, or null if it has none
+     * or it is unknown.
+     */
+    public String getMimeTypeFromPath(String path) {
+        int lastDot = path.lastIndexOf('.');
+        if (lastDot == -1 || lastDot < path.lastIndexOf('/')) {
+            // No extension, only a dot in a directory name at most
+            return null;
+        }
+        return getMimeTypeFromExtension(path.substring(lastDot + 1));
+    }
+
+    private static boolean isPlausibleExtension(String extension) {
+        int length = extension.length();
+        if (length == 0 || length > MAX_CACHED_EXTENSION_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = extension.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the cached MIME type for a URI, or null if it is not cached or has expired.
+     */
+    public String getUriMimeType(Uri uri) {
+        String key = uri.toString();
+        synchronized (uriCache) {
+            UriEntry entry = uriCache.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (SystemClock.elapsedRealtime() - entry.timestamp > uriTtlMs) {
+                uriCache.remove(key);
+                return null;
+            }
+            return entry.mimeType;
+        }
+    }
+
+    /**
+     * Remembers the MIME type of a URI. Null values are ignored.
+     */
+    public void putUriMimeType(Uri uri, String mimeType) {
+        if (mimeType == null) {
+            return;
+        }
+        synchronized (uriCache) {
+            uriCache.put(uri.toString(), new UriEntry(mimeType, SystemClock.elapsedRealtime()));
+        }
+    }
+
+    /**
+     * Sets how long per-URI entries stay valid.
+     */
+    public void setUriTtl(long ttlMs) {
+        uriTtlMs = ttlMs;
+    }
+
+    /**
+     * Drops all per-URI entries. Extension entries are kept.
+     */
+    public void clearUriCache() {
+        synchronized (uriCache) {
+            uriCache.clear();
+        }
+    }
+
+    private static final class UriEntry {
+        final String mimeType;
+        final long timestamp;
+
+        UriEntry(String mimeType, long timestamp) {
+            this.mimeType = mimeType;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -301,7 +301,7 @@ public class NativeToJsMessageQueue {
 
         @Override
         public void onNativeToJsMessageAvailable(final NativeToJsMessageQueue queue) {
-            cordova.getActivity().runOnUiThread(new Runnable() {
+            UiThreadHelper.runOnUiThread(cordova, new Runnable() {
                 @Override
                 public void run() {
                     String js = queue.popAndEncodeAsJs();
@@ -374,7 +374,7 @@ public class NativeToJsMessageQueue {
 
         @Override
         public void onNativeToJsMessageAvailable(final NativeToJsMessageQueue queue) {
-            cordova.getActivity().runOnUiThread(new Runnable() {
+            UiThreadHelper.runOnUiThread(cordova, new Runnable() {
                 @Override
                 public void run() {
                     String js = queue.popAndEncodeAsJs();
@@ -0,0 +1,153 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolved plugin classes and their no-arg constructors, so each plugin class is looked up
+ * by name only once per process.
+ *
+ * preload() resolves the classes of config.xml on a background thread while the WebView
+ * is still being set up. Classes are loaded there but not initialized, so no plugin static
+ * initializer runs off the main thread.
+ *
+ * Plugins are created through the PluginRegistry when there is one (the generated
+ * org.apache.cordova.GeneratedPluginRegistry, if the app was built with
+ * plugin-registry-processor), and through their cached constructor otherwise.
+ */
+public final class PluginClassCache {
+    private static final String TAG = "PluginClassCache";
+    private static final String GENERATED_REGISTRY = "org.apache.cordova.GeneratedPluginRegistry";
+
+    private static final ConcurrentHashMap<String, Constructor<? extends CordovaPlugin>> constructors =
+            new ConcurrentHashMap<String, Constructor<? extends CordovaPlugin>>();
+
+    private static PluginRegistry registry;
+    private static boolean registryResolved = false;
+
+    private PluginClassCache() {
+    }
+
+    /**
+     * Resolve the classes of the given entries on CordovaResourceApi's I/O executor
+     */
+    public static void preload(Collection<PluginEntry> entries) {
+        final List<String> classNames = new ArrayList<String>();
+        for (PluginEntry entry : entries) {
+            if (entry.plugin == null && entry.pluginClass != null && !constructors.containsKey(entry.pluginClass)) {
+                classNames.add(entry.pluginClass);
+            }
+        }
+        if (classNames.isEmpty()) {
+            return;
+        }
+        CordovaResourceApi.getIoExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                StartupTimeline.getInstance().beginSection("PluginClassCache.preload");
+                for (String className : classNames) {
+                    try {
+                        getConstructor(className);
+                    } catch (Exception e) {
+                        // Reported again when the plugin is instantiated
+                        LOG.w(TAG, "Could not preload plugin class " + className);
+                    }
+                }
+                StartupTimeline.getInstance().endSection("PluginClassCache.preload");
+            }
+        });
+    }
+
+    /**
+     * The no-arg constructor of a plugin class, resolved on first use
+     *
+     * @throws ClassNotFoundException If there is no such class
+     * @throws NoSuchMethodException If it has no public no-arg constructor
+     * @throws ClassCastException If it is not a CordovaPlugin
+     */
+    public static Constructor<? extends CordovaPlugin> getConstructor(String className)
+            throws ClassNotFoundException, NoSuchMethodException {
+        Constructor<? extends CordovaPlugin> constructor = constructors.get(className);
+        if (constructor == null) {
+            Class<?> c = Class.forName(className, false, PluginClassCache.class.getClassLoader());
+            constructor = c.asSubclass(CordovaPlugin.class).getConstructor();
+            constructors.putIfAbsent(className, constructor);
+        }
+        return constructor;
+    }
+
+    /**
+     * Whether the plugin class is of the given type, without initializing it
+     */
+    public static boolean isAssignableTo(String className, Class<?> type) {
+        try {
+            return type.isAssignableFrom(getConstructor(className).getDeclaringClass());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Use the given registry instead of the generated one; null to create every plugin
+     * by reflection (e.g. to compare both)
+     */
+    public static synchronized void setRegistry(PluginRegistry pluginRegistry) {
+        registry = pluginRegistry;
+        registryResolved = true;
+    }
+
+    /**
+     * The registry in use: the one set, else the generated one if the app has it, else null
+     */
+    public static synchronized PluginRegistry getRegistry() {
+        if (!registryResolved) {
+            registryResolved = true;
+            try {
+                // The one class looked up by name; it knows every other plugin class
+                registry = (PluginRegistry) Class.forName(GENERATED_REGISTRY).getConstructor().newInstance();
+            } catch (ClassNotFoundException e) {
+                LOG.d(TAG, "No generated plugin registry, plugins are created by reflection");
+            } catch (Exception e) {
+                LOG.e(TAG, "Cannot create " + GENERATED_REGISTRY, e);
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Create a plugin through the registry, or from its cached constructor
+     *
+     * @throws Exception Anything the lookup or the constructor throws
+     */
+    public static CordovaPlugin newInstance(String className) throws Exception {
+        PluginRegistry pluginRegistry = getRegistry();
+        if (pluginRegistry != null) {
+            CordovaPlugin plugin = pluginRegistry.newPlugin(className);
+            if (plugin != null) {
+                return plugin;
+            }
+        }
+        return getConstructor(className).newInstance();
+    }
+}
@@ -25,6 +25,32 @@ import org.apache.cordova.CordovaPlugin;
  */
 public final class PluginEntry {
 
+    /**
+     * When an onload plugin is created, relative to PluginManager.init().
+     * Declared in config.xml as &lt;param name="onload-phase" value="after-first-frame" /&gt;.
+     */
+    public enum OnloadPhase {
+        /** During init(), before the first frame (the default) */
+        BEFORE_FIRST_FRAME,
+        /** Right after the next frame */
+        AFTER_FIRST_FRAME,
+        /** Once the main thread is idle */
+        IDLE;
+
+        /**
+         * Parse a config.xml value ("before-first-frame", "after-first-frame", "idle").
+         * Unknown values give the default.
+         */
+        public static OnloadPhase fromConfigValue(String value) {
+            if ("after-first-frame".equals(value)) {
+                return AFTER_FIRST_FRAME;
+            } else if ("idle".equals(value)) {
+                return IDLE;
+            }
+            return BEFORE_FIRST_FRAME;
+        }
+    }
+
     /**
      * The name of the service that this plugin implements
      */
@@ -45,6 +71,11 @@ public final class PluginEntry {
      */
     public final boolean onload;
 
+    /**
+     * For onload plugins, when PluginManager creates them.
+     */
+    public final OnloadPhase onloadPhase;
+
     /**
      * Constructs with a CordovaPlugin already instantiated.
      *
@@ -52,7 +83,7 @@ public final class PluginEntry {
      * @param pluginClass           The plugin class name
      */
     public PluginEntry(String service, CordovaPlugin plugin) {
-        this(service, plugin.getClass().getName(), true, plugin);
+        this(service, plugin.getClass().getName(), true, OnloadPhase.BEFORE_FIRST_FRAME, plugin);
     }
 
     /**
@@ -61,7 +92,7 @@ public final class PluginEntry {
      * @param onload                Create plugin object when HTML page is loaded
      */
     public PluginEntry(String service, CordovaPlugin plugin, boolean onload) {
-        this(service, plugin.getClass().getName(), onload, plugin);
+        this(service, plugin.getClass().getName(), onload, OnloadPhase.BEFORE_FIRST_FRAME, plugin);
     }
 
     /**
@@ -70,19 +101,31 @@ public final class PluginEntry {
      * @param onload                Create plugin object when HTML page is loaded
      */
     public PluginEntry(String service, String pluginClass, boolean onload) {
-        this(service, pluginClass, onload, null);
+        this(service, pluginClass, onload, OnloadPhase.BEFORE_FIRST_FRAME, null);
+    }
+
+    /**
+     * @param service               The name of the service
+     * @param pluginClass           The plugin class name
+     * @param onload                Create plugin object when HTML page is loaded
+     * @param onloadPhase           When to create it, if onload
+     */
+    public PluginEntry(String service, String pluginClass, boolean onload, OnloadPhase onloadPhase) {
+        this(service, pluginClass, onload, onloadPhase, null);
     }
 
     /**
      * @param service               The name of the service
      * @param pluginClass           The plugin class name
      * @param onload                Create plugin object when HTML page is loaded
+     * @param onloadPhase           When to create it, if onload
      * @param plugin                The CordovaPlugin already instantiated
      */
-    private PluginEntry(String service, String pluginClass, boolean onload, CordovaPlugin plugin) {
+    private PluginEntry(String service, String pluginClass, boolean onload, OnloadPhase onloadPhase, CordovaPlugin plugin) {
         this.service = service;
         this.pluginClass = pluginClass;
         this.onload = onload;
+        this.onloadPhase = onloadPhase;
         this.plugin = plugin;
     }
 }
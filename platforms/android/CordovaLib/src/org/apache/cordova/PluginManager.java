@@ -32,6 +32,10 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.os.Debug;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.Choreographer;
 import android.webkit.RenderProcessGoneDetail;
 import android.webkit.WebView;
 
@@ -58,9 +62,30 @@ public class PluginManager {
     private final CordovaInterface ctx;
     private final CordovaWebView app;
     private boolean isInitialized;
+    // Bumped whenever the plugins are torn down, so deferred onload plugins of an
+    // earlier page are not created after the fact
+    private int startupGeneration;
 
     private CordovaPlugin permissionRequester;
 
+    // getLaunchUrlPrefix() runs for every navigation and bridge call; computed once per
+    // preferences object and recomputed when one of the preferences it depends on changes
+    private volatile String launchUrlPrefix;
+    private CordovaPreferences launchUrlPrefixSource;
+    private final CordovaPreferences.OnPreferenceChangeListener launchUrlPrefixListener =
+            new CordovaPreferences.OnPreferenceChangeListener() {
+                @Override
+                public void onPreferenceChanged(CordovaPreferences preferences, String name) {
+                    if (name.equals("androidinsecurefilemodeenabled") || name.equals("scheme")
+                            || name.equals("hostname")) {
+                        // Waits for a computation in progress, which may have read the old value
+                        synchronized (this) {
+                            launchUrlPrefix = null;
+                        }
+                    }
+                }
+            };
+
     public PluginManager(CordovaWebView cordovaWebView, CordovaInterface cordova, Collection<PluginEntry> pluginEntries) {
         this.ctx = cordova;
         this.app = cordovaWebView;
@@ -91,30 +116,97 @@ public class PluginManager {
      */
     public void init() {
         LOG.d(TAG, "init()");
-        isInitialized = true;
-        this.onPause(false);
-        this.onDestroy();
-        pluginMap.clear();
-        this.startupPlugins();
+        StartupTimeline.getInstance().beginSection(StartupTimeline.Mark.PLUGIN_MANAGER_INIT);
+        try {
+            isInitialized = true;
+            this.onPause(false);
+            this.onDestroy();
+            pluginMap.clear();
+            this.startupPlugins();
+        } finally {
+            StartupTimeline.getInstance().endSection(StartupTimeline.Mark.PLUGIN_MANAGER_INIT);
+        }
     }
 
     /**
-     * Create plugins objects that have onload set.
+     * Create plugins objects that have onload set. Those with a later onload phase
+     * are created after the next frame or once the main thread is idle; an exec()
+     * reaching one before that creates it right away.
      */
     private void startupPlugins() {
+        final ArrayList<String> afterFirstFrame = new ArrayList<String>();
+        final ArrayList<String> idle = new ArrayList<String>();
         synchronized (entryMap) {
             for (PluginEntry entry : entryMap.values()) {
                 // Add a null entry to for each non-startup plugin to avoid ConcurrentModificationException
                 // When iterating plugins.
-                if (entry.onload) {
+                if (entry.onload && (entry.plugin != null || entry.onloadPhase == PluginEntry.OnloadPhase.BEFORE_FIRST_FRAME)) {
                     getPlugin(entry.service);
                 }
                 else {
-                    LOG.d(TAG, "startupPlugins: put - " + entry.service);
+                    if (LOG.isLoggable(LOG.DEBUG)) {
+                        LOG.d(TAG, "startupPlugins: put - " + entry.service);
+                    }
                     pluginMap.put(entry.service, null);
+                    if (entry.onload && entry.onloadPhase == PluginEntry.OnloadPhase.AFTER_FIRST_FRAME) {
+                        afterFirstFrame.add(entry.service);
+                    } else if (entry.onload) {
+                        idle.add(entry.service);
+                    }
                 }
             }
         }
+        scheduleDeferredPlugins(afterFirstFrame, idle);
+    }
+
+    private void scheduleDeferredPlugins(final ArrayList<String> afterFirstFrame, final ArrayList<String> idle) {
+        if (afterFirstFrame.isEmpty() && idle.isEmpty()) {
+            return;
+        }
+        final int generation = startupGeneration;
+        final Handler handler = new Handler(Looper.getMainLooper());
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!afterFirstFrame.isEmpty()) {
+                    Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                        @Override
+                        public void doFrame(long frameTimeNanos) {
+                            // Posted from the frame callback, so it runs once the frame is done
+                            handler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    startDeferredPlugins(generation, afterFirstFrame, "afterFirstFrame");
+                                }
+                            });
+                        }
+                    });
+                }
+                if (!idle.isEmpty()) {
+                    Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                        @Override
+                        public boolean queueIdle() {
+                            startDeferredPlugins(generation, idle, "idle");
+                            return false;
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private void startDeferredPlugins(int generation, ArrayList<String> services, String phase) {
+        if (generation != startupGeneration) {
+            return;
+        }
+        StartupTimeline.getInstance().beginSection("PluginManager.onload:" + phase);
+        try {
+            for (String service : services) {
+                getPlugin(service);
+            }
+        } finally {
+            StartupTimeline.getInstance().endSection("PluginManager.onload:" + phase);
+        }
     }
 
     /**
@@ -137,7 +229,9 @@ public class PluginManager {
     public void exec(final String service, final String action, final String callbackId, final String rawArgs) {
         CordovaPlugin plugin = getPlugin(service);
         if (plugin == null) {
-            LOG.d(TAG, "exec() call to unknown plugin: " + service);
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, "exec() call to unknown plugin: " + service);
+            }
             PluginResult cr = new PluginResult(PluginResult.Status.CLASS_NOT_FOUND_EXCEPTION);
             app.sendPluginResult(cr, callbackId);
             return;
@@ -145,11 +239,13 @@ public class PluginManager {
         CallbackContext callbackContext = new CallbackContext(callbackId, app);
         try {
             long pluginStartTime = System.currentTimeMillis();
-            boolean wasValidAction = plugin.execute(action, rawArgs, callbackContext);
+            // CordovaAction methods first: one switch, no execute() overload cascade
+            boolean wasValidAction = ActionDispatchers.dispatchBeforeExecute(plugin, action, rawArgs, callbackContext)
+                    || plugin.execute(action, rawArgs, callbackContext);
             long duration = System.currentTimeMillis() - pluginStartTime;
 
             if (duration > SLOW_EXEC_WARNING_THRESHOLD) {
-                LOG.w(TAG, "THREAD WARNING: exec() call to " + service + "." + action + " blocked the main thread for " + duration + "ms. Plugin should use CordovaInterface.getThreadPool().");
+                LOG.w(TAG, "THREAD WARNING: exec() call to " + service + "." + action + " blocked the main thread for " + duration + "ms. Plugin should use CordovaInterface.getTaskScope() or getThreadPool().");
             }
             if (!wasValidAction) {
                 PluginResult cr = new PluginResult(PluginResult.Status.INVALID_ACTION);
@@ -168,6 +264,8 @@ public class PluginManager {
      * Get the plugin object that implements the service.
      * If the plugin object does not already exist, then create it.
      * If the service doesn't exist, then return null.
+     * StatelessPlugins come from the SharedPluginRegistry and are not kept in pluginMap,
+     * so none of the per-WebView callbacks reach them.
      *
      * @param service       The name of the service.
      * @return              CordovaPlugin or null
@@ -179,13 +277,21 @@ public class PluginManager {
             if (pe == null) {
                 return null;
             }
+            if (pe.plugin == null && SharedPluginRegistry.isStateless(pe.pluginClass)) {
+                ret = SharedPluginRegistry.get(service, pe.pluginClass, ctx);
+                if (ret != null) {
+                    return ret;
+                }
+            }
             if (pe.plugin != null) {
                 ret = pe.plugin;
             } else {
                 ret = instantiatePlugin(pe.pluginClass);
             }
             ret.privateInitialize(service, ctx, app, app.getPreferences());
-            LOG.d(TAG, "getPlugin - put: " + service);
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, "getPlugin - put: " + service);
+            }
             pluginMap.put(service, ret);
         }
         return ret;
@@ -224,7 +330,9 @@ public class PluginManager {
         this.entryMap.put(entry.service, entry);
         if (entry.plugin != null) {
             entry.plugin.privateInitialize(entry.service, ctx, app, app.getPreferences());
-            LOG.d(TAG, "addService: put - " + entry.service);
+            if (LOG.isLoggable(LOG.DEBUG)) {
+                LOG.d(TAG, "addService: put - " + entry.service);
+            }
             pluginMap.put(entry.service, entry.plugin);
         }
     }
@@ -333,6 +441,7 @@ public class PluginManager {
      * The final call you receive before your activity is destroyed.
      */
     public void onDestroy() {
+        startupGeneration++;
         synchronized (this.pluginMap) {
             for (CordovaPlugin plugin : this.pluginMap.values()) {
                 if (plugin != null) {
@@ -340,6 +449,16 @@ public class PluginManager {
                 }
             }
         }
+        // Nothing is left to receive the results
+        cancelPageTasks();
+        // The preferences may outlive this PluginManager; getLaunchUrlPrefix() registers again if needed
+        synchronized (launchUrlPrefixListener) {
+            if (launchUrlPrefixSource != null) {
+                launchUrlPrefixSource.removeOnPreferenceChangeListener(launchUrlPrefixListener);
+                launchUrlPrefixSource = null;
+            }
+            launchUrlPrefix = null;
+        }
     }
 
     /**
@@ -350,7 +469,9 @@ public class PluginManager {
      * @return                  Object to stop propagation or null
      */
     public Object postMessage(String id, Object data) {
-        LOG.d(TAG, "postMessage: " + id);
+        if (LOG.isLoggable(LOG.DEBUG)) {
+            LOG.d(TAG, "postMessage: " + id);
+        }
         synchronized (this.pluginMap) {
             this.pluginMap.forEach((s, plugin) -> {
                 if (plugin != null) {
@@ -383,13 +504,29 @@ public class PluginManager {
      * Would be considered as a breaking change if we apply a more granular check.
      */
     private String getLaunchUrlPrefix() {
-        if (!app.getPreferences().getBoolean("AndroidInsecureFileModeEnabled", false)) {
-            String scheme = app.getPreferences().getString("scheme", SCHEME_HTTPS).toLowerCase();
-            String hostname = app.getPreferences().getString("hostname", DEFAULT_HOSTNAME).toLowerCase();
-            return scheme + "://" + hostname + '/';
+        CordovaPreferences preferences = app.getPreferences();
+        String prefix = launchUrlPrefix;
+        if (prefix != null && preferences == launchUrlPrefixSource) {
+            return prefix;
+        }
+        synchronized (launchUrlPrefixListener) {
+            if (preferences != launchUrlPrefixSource) {
+                if (launchUrlPrefixSource != null) {
+                    launchUrlPrefixSource.removeOnPreferenceChangeListener(launchUrlPrefixListener);
+                }
+                preferences.addOnPreferenceChangeListener(launchUrlPrefixListener);
+                launchUrlPrefixSource = preferences;
+            }
+            if (!preferences.getBoolean("AndroidInsecureFileModeEnabled", false)) {
+                String scheme = preferences.getString("scheme", SCHEME_HTTPS).toLowerCase();
+                String hostname = preferences.getString("hostname", DEFAULT_HOSTNAME).toLowerCase();
+                prefix = scheme + "://" + hostname + '/';
+            } else {
+                prefix = "file://";
+            }
+            launchUrlPrefix = prefix;
+            return prefix;
         }
-
-        return "file://";
     }
 
     /**
@@ -539,6 +676,16 @@ public class PluginManager {
                 }
             }
         }
+        // The callbacks of the old page are gone
+        cancelPageTasks();
+    }
+
+    private void cancelPageTasks() {
+        TaskScope scope = ctx.getTaskScope();
+        // The process-wide default scope also holds the tasks of other WebViews
+        if (!scope.isSharedScope()) {
+            scope.cancelAll();
+        }
     }
 
     Uri remapUri(Uri uri) {
@@ -556,17 +703,13 @@ public class PluginManager {
     }
 
     /**
-     * Create a plugin based on class name.
+     * Create a plugin based on class name, through the cached constructor.
      */
     private CordovaPlugin instantiatePlugin(String className) {
         CordovaPlugin ret = null;
         try {
-            Class<?> c = null;
             if ((className != null) && !("".equals(className))) {
-                c = Class.forName(className);
-            }
-            if (c != null & CordovaPlugin.class.isAssignableFrom(c)) {
-                ret = (CordovaPlugin) c.newInstance();
+                ret = PluginClassCache.newInstance(className);
             }
         } catch (Exception e) {
             e.printStackTrace();
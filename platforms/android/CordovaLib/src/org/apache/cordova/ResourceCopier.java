@@ -0,0 +1,286 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stream-to-stream copy engine used by CordovaResourceApi.copyResource() for sources that
+ * are not plain files (content providers, assets, http).
+ *
+ * Small copies go through a single pooled buffer. Larger (or unknown-length) copies are
+ * double-buffered: the calling thread reads into one buffer while a writer thread drains
+ * the other, so slow sources and slow sinks overlap instead of adding up.
+ * Buffers are large and recycled between copies to avoid GC churn.
+ */
+final class ResourceCopier {
+    static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 8;
+    // Below this size the hand-off to a second thread costs more than it saves.
+    private static final long DOUBLE_BUFFER_THRESHOLD = 2L * BUFFER_SIZE;
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private static final ConcurrentLinkedQueue<byte[]> bufferPool = new ConcurrentLinkedQueue<byte[]>();
+    private static final AtomicInteger pooledBufferCount = new AtomicInteger();
+    private static ExecutorService writerExecutor;
+
+    // Marks the end of the stream in the queue of filled chunks.
+    private static final Chunk END_OF_STREAM = new Chunk(null);
+
+    private ResourceCopier() {
+    }
+
+    /**
+     * Copies everything from inputStream to outputStream. Does not close either stream.
+     *
+     * @param length        The source length if known, otherwise -1. Only used as a hint and
+     *                      for progress reporting.
+     * @param listener      Notified after each buffer is written. May be null.
+     * @param cancelSignal  The copy stops with an InterruptedIOException once this is cancelled.
+     *                      May be null.
+     * @return The number of bytes copied.
+     */
+    static long copy(InputStream inputStream, OutputStream outputStream, long length,
+            CordovaResourceApi.CopyProgressListener listener, CompletableFuture<?> cancelSignal) throws IOException {
+        if (length >= 0 && length < DOUBLE_BUFFER_THRESHOLD) {
+            return copySequential(inputStream, outputStream, length, listener, cancelSignal);
+        }
+        return copyDoubleBuffered(inputStream, outputStream, length, listener, cancelSignal);
+    }
+
+    static void throwIfCancelled(CompletableFuture<?> cancelSignal) throws IOException {
+        if (cancelSignal != null && cancelSignal.isCancelled()) {
+            throw new InterruptedIOException("Copy cancelled");
+        }
+    }
+
+    private static long copySequential(InputStream inputStream, OutputStream outputStream, long length,
+            CordovaResourceApi.CopyProgressListener listener, CompletableFuture<?> cancelSignal) throws IOException {
+        byte[] buffer = acquireBuffer();
+        long bytesCopied = 0;
+        try {
+            for (;;) {
+                throwIfCancelled(cancelSignal);
+                int bytesRead = inputStream.read(buffer, 0, buffer.length);
+                if (bytesRead <= 0) {
+                    break;
+                }
+                outputStream.write(buffer, 0, bytesRead);
+                bytesCopied += bytesRead;
+                if (listener != null) {
+                    listener.onProgress(bytesCopied, length);
+                }
+            }
+        } finally {
+            releaseBuffer(buffer);
+        }
+        return bytesCopied;
+    }
+
+    private static long copyDoubleBuffered(InputStream inputStream, final OutputStream outputStream, final long length,
+            final CordovaResourceApi.CopyProgressListener listener, CompletableFuture<?> cancelSignal) throws IOException {
+        // Two chunks circulate between the queues. "filled" has room for both plus END_OF_STREAM.
+        final BlockingQueue<Chunk> empty = new ArrayBlockingQueue<Chunk>(2);
+        final BlockingQueue<Chunk> filled = new ArrayBlockingQueue<Chunk>(3);
+        final Chunk first = new Chunk(acquireBuffer());
+        final Chunk second = new Chunk(acquireBuffer());
+        empty.add(first);
+        empty.add(second);
+        final AtomicReference<IOException> writeError = new AtomicReference<IOException>();
+        final AtomicBoolean stopWriter = new AtomicBoolean();
+        final CountDownLatch writerDone = new CountDownLatch(1);
+
+        Future<?> writer = getWriterExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+                long bytesWritten = 0;
+                try {
+                    for (;;) {
+                        Chunk chunk = filled.take();
+                        if (chunk == END_OF_STREAM || stopWriter.get()) {
+                            return;
+                        }
+                        outputStream.write(chunk.data, 0, chunk.length);
+                        bytesWritten += chunk.length;
+                        if (listener != null) {
+                            listener.onProgress(bytesWritten, length);
+                        }
+                        empty.put(chunk);
+                    }
+                } catch (IOException e) {
+                    writeError.set(e);
+                } catch (InterruptedException e) {
+                    writeError.set(new InterruptedIOException("Copy interrupted"));
+                } finally {
+                    writerDone.countDown();
+                }
+            }
+        });
+
+        long bytesRead = 0;
+        boolean writerFinished = false;
+        try {
+            for (;;) {
+                Chunk chunk = takeEmptyChunk(empty, writeError, cancelSignal);
+                int n = readFully(inputStream, chunk.data);
+                if (n <= 0) {
+                    break;
+                }
+                chunk.length = n;
+                bytesRead += n;
+                filled.put(chunk);
+            }
+            filled.put(END_OF_STREAM);
+            writer.get();
+            writerFinished = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Copy interrupted");
+        } catch (ExecutionException e) {
+            writerFinished = true;
+            throw new IOException("Copy failed", e.getCause());
+        } finally {
+            if (!writerFinished) {
+                // The caller closes outputStream next, so the writer must be out of it first.
+                // It stops before its next chunk; a write in progress is not interrupted.
+                stopWriter.set(true);
+                filled.offer(END_OF_STREAM);
+                awaitUninterruptibly(writerDone);
+            }
+            releaseBuffer(first.data);
+            releaseBuffer(second.data);
+        }
+        IOException e = writeError.get();
+        if (e != null) {
+            throw e;
+        }
+        return bytesRead;
+    }
+
+    private static Chunk takeEmptyChunk(BlockingQueue<Chunk> empty, AtomicReference<IOException> writeError,
+            CompletableFuture<?> cancelSignal) throws IOException, InterruptedException {
+        for (;;) {
+            throwIfCancelled(cancelSignal);
+            IOException e = writeError.get();
+            if (e != null) {
+                throw e;
+            }
+            Chunk chunk = empty.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Reads until the buffer is full or the stream ends, so that writes are as large as possible.
+    private static int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int n = inputStream.read(buffer, total, buffer.length - total);
+            if (n <= 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static byte[] acquireBuffer() {
+        byte[] buffer = bufferPool.poll();
+        if (buffer != null) {
+            pooledBufferCount.decrementAndGet();
+            return buffer;
+        }
+        return new byte[BUFFER_SIZE];
+    }
+
+    private static void releaseBuffer(byte[] buffer) {
+        if (pooledBufferCount.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            bufferPool.offer(buffer);
+        } else {
+            pooledBufferCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Drops all pooled buffers, e.g. when the app is asked to trim memory.
+     */
+    static void trimBufferPool() {
+        while (bufferPool.poll() != null) {
+            pooledBufferCount.decrementAndGet();
+        }
+    }
+
+    // Writers get their own threads: they must never wait behind the copies they serve
+    // in the bounded I/O executor.
+    private static synchronized ExecutorService getWriterExecutor() {
+        if (writerExecutor == null) {
+            writerExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    return new Thread(r, "CordovaResourceApi-writer-" + count.incrementAndGet());
+                }
+            });
+        }
+        return writerExecutor;
+    }
+
+    private static final class Chunk {
+        final byte[] data;
+        int length;
+
+        Chunk(byte[] data) {
+            this.data = data;
+        }
+    }
+}
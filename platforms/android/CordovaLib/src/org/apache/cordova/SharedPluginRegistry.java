@@ -0,0 +1,114 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide instances of StatelessPlugin classes, shared by the PluginManagers of
+ * every WebView. PluginManager asks here before instantiating a plugin of its own.
+ *
+ * Lookups of existing instances take no lock, as they are on the path of every exec().
+ */
+public final class SharedPluginRegistry {
+    private static final String TAG = "SharedPluginRegistry";
+
+    private static final ConcurrentHashMap<String, Boolean> statelessByClass = new ConcurrentHashMap<String, Boolean>();
+    private static final ConcurrentHashMap<String, CordovaPlugin> plugins = new ConcurrentHashMap<String, CordovaPlugin>();
+    // Held while creating or destroying instances, never while looking them up
+    private static final Object lock = new Object();
+
+    private SharedPluginRegistry() {
+    }
+
+    /**
+     * Whether the class implements StatelessPlugin. Cached, so each class is looked up once.
+     */
+    public static boolean isStateless(String className) {
+        if (className == null || className.isEmpty()) {
+            return false;
+        }
+        Boolean stateless = statelessByClass.get(className);
+        if (stateless == null) {
+            stateless = PluginClassCache.isAssignableTo(className, StatelessPlugin.class);
+            statelessByClass.put(className, stateless);
+        }
+        return stateless;
+    }
+
+    /**
+     * The shared instance of a stateless plugin class, created and initialized on first use.
+     * It belongs to no WebView: its cordova only offers the application context, the
+     * thread pool of the given CordovaInterface and a task scope that no page change
+     * cancels (see StatelessCordovaInterface), its
+     * preferences are those of config.xml, and its webView is null.
+     *
+     * @return The plugin, or null if the class is not a StatelessPlugin or cannot be created
+     */
+    public static CordovaPlugin get(String service, String className, CordovaInterface cordova) {
+        CordovaPlugin plugin = plugins.get(className);
+        if (plugin != null) {
+            return plugin;
+        }
+        if (!isStateless(className)) {
+            return null;
+        }
+        synchronized (lock) {
+            plugin = plugins.get(className);
+            if (plugin == null) {
+                try {
+                    plugin = PluginClassCache.newInstance(className);
+                } catch (Exception e) {
+                    LOG.e(TAG, "Error creating shared plugin " + className, e);
+                    return null;
+                }
+                CordovaInterface shared = new StatelessCordovaInterface(cordova);
+                plugin.privateInitialize(service, shared, null,
+                        CordovaConfig.get(shared.getContext()).newPreferences());
+                if (LOG.isLoggable(LOG.DEBUG)) {
+                    LOG.d(TAG, "Created shared plugin " + className);
+                }
+                plugins.put(className, plugin);
+            }
+        }
+        return plugin;
+    }
+
+    /**
+     * Number of shared plugin instances
+     */
+    public static int size() {
+        return plugins.size();
+    }
+
+    /**
+     * Destroy every shared instance, e.g. when the last WebView is gone
+     */
+    public static void clear() {
+        synchronized (lock) {
+            for (CordovaPlugin plugin : plugins.values()) {
+                plugin.onDestroy();
+                if (plugin.cordova instanceof StatelessCordovaInterface) {
+                    ((StatelessCordovaInterface) plugin.cordova).destroy();
+                }
+            }
+            plugins.clear();
+        }
+    }
+}
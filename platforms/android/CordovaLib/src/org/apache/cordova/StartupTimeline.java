@@ -0,0 +1,253 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+package org.apache.cordova;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+
+/**
+ * Process-wide startup timeline.
+ *
+ * Records monotonic {@link SystemClock#elapsedRealtimeNanos()} marks for the startup
+ * milestones (the first occurrence of each) and mirrors them as {@link Trace} sections,
+ * so they show up in systrace/Perfetto next to the framework's own.
+ * Sections measure a duration on one thread; instants (page started, deviceready, ...)
+ * are recorded as zero-length entries.
+ */
+public final class StartupTimeline {
+    private static final String TAG = "StartupTimeline";
+    private static final String TRACE_PREFIX = "Cordova:";
+    // Trace section names are limited to 127 characters
+    private static final int MAX_TRACE_NAME_LENGTH = 127;
+
+    private static final StartupTimeline instance = new StartupTimeline();
+
+    /**
+     * The standard milestones. Apps may record their own entries by name as well.
+     */
+    public enum Mark {
+        PROCESS_START("processStart"),
+        PROVIDER_LOAD("webViewProviderLoad"),
+        WEBVIEW_CONSTRUCTION("systemWebViewConstruction"),
+        CORDOVA_INIT("cordovaWebViewInit"),
+        PLUGIN_MANAGER_INIT("pluginManagerInit"),
+        PAGE_STARTED("pageStarted"),
+        PAGE_FINISHED("pageFinished"),
+        FIRST_VISUAL_STATE("firstVisualState"),
+        DEVICE_READY("deviceReady");
+
+        public final String label;
+
+        Mark(String label) {
+            this.label = label;
+        }
+    }
+
+    private final long processStartNanos;
+    private final Map<String, Report.Entry> entries = new LinkedHashMap<String, Report.Entry>();
+    private final Map<String, Long> openSections = new HashMap<String, Long>();
+
+    private StartupTimeline() {
+        // Process.getStartElapsedRealtime() has millisecond resolution only
+        processStartNanos = Process.getStartElapsedRealtime() * 1000000L;
+        entries.put(Mark.PROCESS_START.label, new Report.Entry(Mark.PROCESS_START.label, processStartNanos, 0, processStartNanos));
+    }
+
+    public static StartupTimeline getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records an instant, unless it was recorded before.
+     */
+    public void mark(Mark mark) {
+        mark(mark.label);
+    }
+
+    public void mark(String name) {
+        long now = SystemClock.elapsedRealtimeNanos();
+        Trace.beginSection(traceName(name));
+        Trace.endSection();
+        record(name, now, 0);
+    }
+
+    /**
+     * Starts a section; must be ended with {@link #endSection} on the same thread.
+     */
+    public void beginSection(Mark mark) {
+        beginSection(mark.label);
+    }
+
+    public void beginSection(String name) {
+        Trace.beginSection(traceName(name));
+        synchronized (this) {
+            openSections.put(name, SystemClock.elapsedRealtimeNanos());
+        }
+    }
+
+    public void endSection(Mark mark) {
+        endSection(mark.label);
+    }
+
+    public void endSection(String name) {
+        long now = SystemClock.elapsedRealtimeNanos();
+        Trace.endSection();
+        Long start;
+        synchronized (this) {
+            start = openSections.remove(name);
+        }
+        if (start != null) {
+            record(name, start, now - start);
+        }
+    }
+
+    public synchronized boolean has(Mark mark) {
+        return entries.containsKey(mark.label);
+    }
+
+    /**
+     * Returns a snapshot of everything recorded so far, ordered by start time.
+     */
+    public synchronized Report getReport() {
+        List<Report.Entry> list = new ArrayList<Report.Entry>(entries.values());
+        Collections.sort(list, new Comparator<Report.Entry>() {
+            @Override
+            public int compare(Report.Entry a, Report.Entry b) {
+                return Long.compare(a.startNanos, b.startNanos);
+            }
+        });
+        return new Report(processStartNanos, list);
+    }
+
+    private synchronized void record(String name, long startNanos, long durationNanos) {
+        if (!entries.containsKey(name)) {
+            entries.put(name, new Report.Entry(name, startNanos, durationNanos, processStartNanos));
+        }
+    }
+
+    private static String traceName(String name) {
+        String traceName = TRACE_PREFIX + name;
+        return traceName.length() > MAX_TRACE_NAME_LENGTH ? traceName.substring(0, MAX_TRACE_NAME_LENGTH) : traceName;
+    }
+
+    /**
+     * Immutable view of the timeline.
+     */
+    public static final class Report {
+        public static final class Entry {
+            public final String name;
+            public final long startNanos;
+            public final long durationNanos;
+            private final long processStartNanos;
+
+            Entry(String name, long startNanos, long durationNanos, long processStartNanos) {
+                this.name = name;
+                this.startNanos = startNanos;
+                this.durationNanos = durationNanos;
+                this.processStartNanos = processStartNanos;
+            }
+
+            public double getSinceProcessStartMs() {
+                return (startNanos - processStartNanos) / 1e6;
+            }
+
+            public double getDurationMs() {
+                return durationNanos / 1e6;
+            }
+        }
+
+        private final long processStartNanos;
+        private final List<Entry> entries;
+
+        Report(long processStartNanos, List<Entry> entries) {
+            this.processStartNanos = processStartNanos;
+            this.entries = Collections.unmodifiableList(entries);
+        }
+
+        public long getProcessStartNanos() {
+            return processStartNanos;
+        }
+
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * Returns the entry with the given name, or null if it was not recorded.
+         */
+        public Entry get(String name) {
+            for (Entry entry : entries) {
+                if (entry.name.equals(name)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        public Entry get(Mark mark) {
+            return get(mark.label);
+        }
+
+        public JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            try {
+                json.put("processStartNanos", processStartNanos);
+                JSONArray list = new JSONArray();
+                for (Entry entry : entries) {
+                    JSONObject item = new JSONObject();
+                    item.put("name", entry.name);
+                    item.put("sinceProcessStartMs", entry.getSinceProcessStartMs());
+                    item.put("durationMs", entry.getDurationMs());
+                    list.put(item);
+                }
+                json.put("entries", list);
+            } catch (JSONException e) {
+                LOG.e(TAG, "Failed to serialize startup timeline", e);
+            }
+            return json;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Startup timeline (ms since process start):");
+            for (Entry entry : entries) {
+                sb.append(String.format(Locale.US, "\n  %9.1f  %-28s", entry.getSinceProcessStartMs(), entry.name));
+                if (entry.durationNanos > 0) {
+                    sb.append(String.format(Locale.US, " took %.1f", entry.getDurationMs()));
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
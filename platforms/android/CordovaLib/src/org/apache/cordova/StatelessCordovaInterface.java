@@ -0,0 +1,106 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The CordovaInterface of shared StatelessPlugin instances. It belongs to no WebView:
+ * it has the application context and the thread pool of the WebView that created the
+ * plugin, a task scope of its own that lives until the plugin is destroyed, and refuses
+ * everything that needs an activity or a page.
+ */
+final class StatelessCordovaInterface implements CordovaInterface {
+    private final Context applicationContext;
+    private final ExecutorService threadPool;
+    // No page owns it, so page changes do not cancel it; see destroy()
+    private final TaskScope taskScope = new TaskScope();
+
+    StatelessCordovaInterface(CordovaInterface creator) {
+        this.applicationContext = creator.getContext().getApplicationContext();
+        this.threadPool = creator.getThreadPool();
+    }
+
+    @Override
+    public void startActivityForResult(CordovaPlugin command, Intent intent, int requestCode) {
+        throw unsupported("startActivityForResult");
+    }
+
+    @Override
+    public void setActivityResultCallback(CordovaPlugin plugin) {
+        throw unsupported("setActivityResultCallback");
+    }
+
+    @Override
+    public AppCompatActivity getActivity() {
+        return null;
+    }
+
+    @Override
+    public Context getContext() {
+        return applicationContext;
+    }
+
+    @Override
+    public Object onMessage(String id, Object data) {
+        return null;
+    }
+
+    @Override
+    public ExecutorService getThreadPool() {
+        return threadPool;
+    }
+
+    @Override
+    public TaskScope getTaskScope() {
+        return taskScope;
+    }
+
+    @Override
+    public void requestPermission(CordovaPlugin plugin, int requestCode, String permission) {
+        throw unsupported("requestPermission");
+    }
+
+    @Override
+    public void requestPermissions(CordovaPlugin plugin, int requestCode, String[] permissions) {
+        throw unsupported("requestPermissions");
+    }
+
+    @Override
+    public boolean hasPermission(String permission) {
+        return PackageManager.PERMISSION_GRANTED == applicationContext.checkSelfPermission(permission);
+    }
+
+    /**
+     * Cancel the plugin's tasks when it is destroyed
+     */
+    void destroy() {
+        taskScope.close();
+    }
+
+    private static UnsupportedOperationException unsupported(String method) {
+        return new UnsupportedOperationException(method + "() is not available to a StatelessPlugin");
+    }
+}
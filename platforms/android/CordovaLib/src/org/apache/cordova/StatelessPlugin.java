@@ -0,0 +1,37 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova;
+
+/**
+ * Marks a plugin whose single instance can serve every WebView in the process
+ * (see SharedPluginRegistry), instead of one instance per PluginManager.
+ *
+ * Such a plugin:
+ *  - keeps no state that belongs to one WebView or page,
+ *  - never uses its webView field (it is null) and replies only through the
+ *    CallbackContext passed to execute(), which belongs to the calling WebView,
+ *  - uses cordova only for getContext() (the application context), getThreadPool() and
+ *    hasPermission(); everything tied to an activity or a page throws, since the instance
+ *    is not initialized with any one WebView's CordovaInterface,
+ *  - reads its preferences from config.xml, not from the calling WebView,
+ *  - gets no per-WebView callbacks (pause/resume, messages, URL hooks, ...),
+ *    only initialize() once and onDestroy() when the registry is cleared.
+ */
+public interface StatelessPlugin {
+}
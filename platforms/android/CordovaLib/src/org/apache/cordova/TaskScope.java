@@ -0,0 +1,408 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova;
+
+import android.os.Process;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background work of plugins, scoped to the page that asked for it.
+ *
+ * Every CordovaInterface has a root scope (CordovaInterface.getTaskScope()) that
+ * PluginManager cancels on onReset() and onDestroy(), i.e. when the page navigates away or
+ * the WebView goes: running tasks are interrupted, queued ones never start, and their
+ * callbacks get no result. The process-wide scope of CordovaInterfaces that keep none,
+ * and the scope of shared StatelessPlugins, belong to no page and are not cancelled then. Plugins may open child scopes with newChild() for work with a
+ * shorter lifetime, e.g. one per long-running request, and close them early.
+ *
+ *     cordova.getTaskScope().submit(callbackContext, () -> readFile(path));
+ *
+ * Tasks are CompletableFutures, so they compose with thenApply() and friends; all() runs
+ * work in parallel and joins the results. Tasks run on getTaskExecutor() unless the scope
+ * was given another executor. Blocking on a task from inside another task of a bounded
+ * pool can exhaust it, so compose instead of calling get() there.
+ */
+public class TaskScope {
+    private static final String TAG = "TaskScope";
+
+    // Plugin work is mostly I/O, so somewhat more threads than cores, within limits
+    private static final int TASK_THREAD_COUNT = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors() * 2));
+    private static final long TASK_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    private static ExecutorService taskExecutor;
+    private static volatile TaskScope sharedScope;
+
+    private final ExecutorService executor;
+    private final TaskScope parent;
+    private final HashSet<Task<?>> tasks = new HashSet<Task<?>>();
+    private final HashSet<TaskScope> children = new HashSet<TaskScope>();
+    private boolean closed = false;
+
+    /**
+     * A task of a TaskScope. Cancelling it interrupts the work if it is running,
+     * and cancels the parallel work of all().
+     */
+    public static final class Task<T> extends CompletableFuture<T> {
+        private final TaskScope scope;
+        private volatile FutureTask<Void> runner;
+        private volatile TaskScope subtasks;
+
+        Task(TaskScope scope) {
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                stop();
+                scope.remove(this);
+            }
+            return cancelled;
+        }
+
+        private void stop() {
+            FutureTask<Void> r = runner;
+            if (r != null) {
+                r.cancel(true);
+            }
+            TaskScope s = subtasks;
+            if (s != null) {
+                s.close();
+            }
+        }
+    }
+
+    public TaskScope() {
+        this(getTaskExecutor());
+    }
+
+    public TaskScope(ExecutorService executor) {
+        this(executor, null);
+    }
+
+    private TaskScope(ExecutorService executor, TaskScope parent) {
+        this.executor = executor;
+        this.parent = parent;
+    }
+
+    /**
+     * Returns the executor that tasks run on by default: virtual threads where the runtime
+     * has them, otherwise a pool sized for the device whose idle threads time out.
+     * It is shared by every scope so that plugin concurrency is capped globally.
+     */
+    public static synchronized ExecutorService getTaskExecutor() {
+        if (taskExecutor == null) {
+            taskExecutor = newVirtualThreadExecutor();
+        }
+        if (taskExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(TASK_THREAD_COUNT, TASK_THREAD_COUNT,
+                    TASK_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        private final AtomicInteger count = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(final Runnable r) {
+                            return new Thread(new Runnable() {
+                                @Override
+                                public void run() {
+                                    // Below the UI and render threads, like AsyncTask's
+                                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                    r.run();
+                                }
+                            }, "CordovaTask-" + count.incrementAndGet());
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            taskExecutor = executor;
+        }
+        return taskExecutor;
+    }
+
+    /**
+     * The scope of CordovaInterfaces that do not keep their own. It lives as long as the
+     * process: no page owns it, so PluginManager never cancels it.
+     */
+    static synchronized TaskScope getSharedScope() {
+        if (sharedScope == null) {
+            sharedScope = new TaskScope();
+        }
+        return sharedScope;
+    }
+
+    /**
+     * Whether this is the process-wide scope of getSharedScope()
+     */
+    boolean isSharedScope() {
+        return this == sharedScope;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Java 21; not part of any Android release so far
+            return (ExecutorService) java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Run the work in the background.
+     *
+     * @return a task completed with the work's result, or cancelled with the scope
+     */
+    public <T> Task<T> submit(final Callable<T> work) {
+        final Task<T> task = new Task<T>(this);
+        synchronized (this) {
+            if (closed) {
+                task.cancel(false);
+                return task;
+            }
+            tasks.add(task);
+        }
+        task.runner = new FutureTask<Void>(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (task.isDone()) {
+                        // Cancelled before it was handed to the executor
+                        return;
+                    }
+                    task.complete(work.call());
+                } catch (Throwable e) {
+                    // After cancel() this is usually the InterruptedException it caused; ignored
+                    task.completeExceptionally(e);
+                } finally {
+                    remove(task);
+                }
+            }
+        }, null);
+        try {
+            executor.execute(task.runner);
+        } catch (RejectedExecutionException e) {
+            task.completeExceptionally(e);
+            remove(task);
+        }
+        return task;
+    }
+
+    /**
+     * Run the work in the background and send its result to the callback: a PluginResult
+     * as is, null as OK, and a String, int, boolean, JSONObject, JSONArray or byte[] as the
+     * message of an OK result. Failures are sent as errors, cancelled tasks send nothing.
+     */
+    public <T> Task<T> submit(final CallbackContext callbackContext, Callable<T> work) {
+        Task<T> task = submit(work);
+        task.whenComplete((result, error) -> sendResult(callbackContext, result, error));
+        return task;
+    }
+
+    /**
+     * Run every piece of work in parallel, in a child scope of this one.
+     * If one fails, the others are cancelled.
+     *
+     * @return a task completed with the results in the order of the work, or with the
+     *         first failure
+     */
+    public <T> Task<List<T>> all(Collection<? extends Callable<? extends T>> work) {
+        final Task<List<T>> joined = new Task<List<T>>(this);
+        final TaskScope scope = newChild();
+        synchronized (this) {
+            if (closed) {
+                joined.cancel(false);
+                return joined;
+            }
+            tasks.add(joined);
+        }
+        joined.subtasks = scope;
+
+        final List<Task<? extends T>> parts = new ArrayList<Task<? extends T>>(work.size());
+        for (Callable<? extends T> callable : work) {
+            Task<? extends T> part = scope.submit(callable);
+            part.whenComplete((result, error) -> {
+                if (error != null && joined.completeExceptionally(unwrap(error))) {
+                    scope.close();
+                    remove(joined);
+                }
+            });
+            parts.add(part);
+        }
+        CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[parts.size()])).thenRun(() -> {
+            List<T> results = new ArrayList<T>(parts.size());
+            for (Task<? extends T> part : parts) {
+                results.add(part.join());
+            }
+            joined.complete(results);
+            scope.close();
+            remove(joined);
+        });
+        return joined;
+    }
+
+    /**
+     * all() for a fixed number of pieces of work
+     */
+    @SafeVarargs
+    public final <T> Task<List<T>> all(Callable<? extends T>... work) {
+        return all(Arrays.asList(work));
+    }
+
+    /**
+     * A scope whose tasks are cancelled with this one's, and that can be closed on its own
+     */
+    public TaskScope newChild() {
+        TaskScope child = new TaskScope(executor, this);
+        synchronized (this) {
+            if (closed) {
+                child.closed = true;
+            } else {
+                children.add(child);
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Cancel every task and close every child scope. The scope itself stays open,
+     * for the next page.
+     */
+    public void cancelAll() {
+        List<Task<?>> running;
+        List<TaskScope> open;
+        synchronized (this) {
+            running = new ArrayList<Task<?>>(tasks);
+            open = new ArrayList<TaskScope>(children);
+            tasks.clear();
+            children.clear();
+        }
+        if (!running.isEmpty() && LOG.isLoggable(LOG.DEBUG)) {
+            LOG.d(TAG, "Cancelling " + running.size() + " tasks");
+        }
+        for (Task<?> task : running) {
+            task.cancel(true);
+        }
+        for (TaskScope child : open) {
+            child.close();
+        }
+    }
+
+    /**
+     * Cancel everything like cancelAll(), and cancel anything submitted from now on
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        cancelAll();
+        if (parent != null) {
+            parent.removeChild(this);
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * The number of tasks submitted to this scope (not its children) that have not finished
+     */
+    public synchronized int getActiveCount() {
+        return tasks.size();
+    }
+
+    private synchronized void remove(Task<?> task) {
+        tasks.remove(task);
+    }
+
+    private synchronized void removeChild(TaskScope child) {
+        children.remove(child);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static void sendResult(CallbackContext callbackContext, Object result, Throwable error) {
+        error = unwrap(error);
+        if (error instanceof CancellationException || callbackContext.isFinished()) {
+            // The page that asked is gone, or the plugin answered some other way
+            return;
+        }
+        if (error == null) {
+            try {
+                callbackContext.sendPluginResult(toPluginResult(result));
+                return;
+            } catch (IllegalArgumentException e) {
+                error = e;
+            }
+        }
+        if (error instanceof JSONException) {
+            callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.JSON_EXCEPTION));
+        } else {
+            LOG.e(TAG, "Uncaught exception from plugin task", error);
+            callbackContext.error(error.getMessage());
+        }
+    }
+
+    private static PluginResult toPluginResult(Object result) {
+        if (result == null) {
+            return new PluginResult(PluginResult.Status.OK);
+        } else if (result instanceof PluginResult) {
+            return (PluginResult) result;
+        } else if (result instanceof String) {
+            return new PluginResult(PluginResult.Status.OK, (String) result);
+        } else if (result instanceof Integer) {
+            return new PluginResult(PluginResult.Status.OK, (Integer) result);
+        } else if (result instanceof Boolean) {
+            return new PluginResult(PluginResult.Status.OK, (Boolean) result);
+        } else if (result instanceof JSONObject) {
+            return new PluginResult(PluginResult.Status.OK, (JSONObject) result);
+        } else if (result instanceof JSONArray) {
+            return new PluginResult(PluginResult.Status.OK, (JSONArray) result);
+        } else if (result instanceof byte[]) {
+            return new PluginResult(PluginResult.Status.OK, (byte[]) result);
+        }
+        throw new IllegalArgumentException("Unsupported task result: " + result.getClass().getName());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Runs work on the UI thread for a CordovaInterface whose Activity may be null, e.g. when the
+ * WebView was preloaded from an Application context and has not been attached to an Activity yet.
+ */
+public class UiThreadHelper {
+    private static Handler mainHandler;
+
+    /**
+     * Same as cordova.getActivity().runOnUiThread(action), but falls back to the main looper
+     * when there is no Activity.
+     */
+    public static void runOnUiThread(CordovaInterface cordova, Runnable action) {
+        Activity activity = cordova.getActivity();
+        if (activity != null) {
+            activity.runOnUiThread(action);
+        } else if (Looper.myLooper() == Looper.getMainLooper()) {
+            action.run();
+        } else {
+            getMainHandler().post(action);
+        }
+    }
+
+    private static synchronized Handler getMainHandler() {
+        if (mainHandler == null) {
+            mainHandler = new Handler(Looper.getMainLooper());
+        }
+        return mainHandler;
+    }
+}
@@ -43,7 +43,9 @@ import org.apache.cordova.CordovaHttpAuthHandler;
 import org.apache.cordova.CordovaPluginPathHandler;
 import org.apache.cordova.CordovaResourceApi;
 import org.apache.cordova.LOG;
+import org.apache.cordova.MimeTypeCache;
 import org.apache.cordova.PluginManager;
+import org.apache.cordova.StartupTimeline;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -98,15 +100,14 @@ public class SystemWebViewClient extends WebViewClient {
                 InputStream is = parentEngine.webView.getContext().getAssets().open("www/" + path, AssetManager.ACCESS_STREAMING);
                 String mimeType = "text/html";
                 String extension = MimeTypeMap.getFileExtensionFromUrl(path);
+                if ("".equals(extension) && (path.endsWith(".js") || path.endsWith(".mjs") || path.endsWith(".wasm"))) {
+                    // getFileExtensionFromUrl() gives up on some file names (e.g. with spaces),
+                    // but scripts and wasm must keep their type to load at all
+                    extension = path.substring(path.lastIndexOf('.') + 1);
+                }
                 if (extension != null) {
-                    if (path.endsWith(".js") || path.endsWith(".mjs")) {
-                        // Make sure JS files get the proper mimetype to support ES modules
-                        mimeType = "application/javascript";
-                    } else if (path.endsWith(".wasm")) {
-                        mimeType = "application/wasm";
-                    } else {
-                        mimeType = MimeTypeMap.getSingleton().getMimeTypeFromExtension(extension);
-                    }
+                    // The cache maps .js/.mjs to application/javascript to support ES modules
+                    mimeType = MimeTypeCache.getInstance().getMimeTypeFromExtension(extension);
                 }
 
                 return new WebResourceResponse(mimeType, null, is);
@@ -240,6 +241,15 @@ public class SystemWebViewClient extends WebViewClient {
         }
         parentEngine.client.onPageFinishedLoading(url);
 
+        // Fires once the page has been drawn, i.e. once the view is attached and visible
+        if (!StartupTimeline.getInstance().has(StartupTimeline.Mark.FIRST_VISUAL_STATE)) {
+            view.postVisualStateCallback(0, new WebView.VisualStateCallback() {
+                @Override
+                public void onComplete(long requestId) {
+                    StartupTimeline.getInstance().mark(StartupTimeline.Mark.FIRST_VISUAL_STATE);
+                }
+            });
+        }
     }
 
     /**
@@ -289,8 +299,8 @@ public class SystemWebViewClient extends WebViewClient {
     @Override
     public void onReceivedSslError(WebView view, SslErrorHandler handler, SslError error) {
 
-        final String packageName = parentEngine.cordova.getActivity().getPackageName();
-        final PackageManager pm = parentEngine.cordova.getActivity().getPackageManager();
+        final String packageName = parentEngine.cordova.getContext().getPackageName();
+        final PackageManager pm = parentEngine.cordova.getContext().getPackageManager();
 
         ApplicationInfo appInfo;
         try {
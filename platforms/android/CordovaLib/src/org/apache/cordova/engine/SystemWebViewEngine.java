@@ -43,6 +43,7 @@ import org.apache.cordova.ICordovaCookieManager;
 import org.apache.cordova.LOG;
 import org.apache.cordova.NativeToJsMessageQueue;
 import org.apache.cordova.PluginManager;
+import org.apache.cordova.UiThreadHelper;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -118,7 +119,7 @@ public class SystemWebViewEngine implements CordovaWebViewEngine {
             }
             @Override
             public void runOnUiThread(Runnable r) {
-                SystemWebViewEngine.this.cordova.getActivity().runOnUiThread(r);
+                UiThreadHelper.runOnUiThread(SystemWebViewEngine.this.cordova, r);
             }
         }));
         nativeToJsMessageQueue.addBridgeMode(new NativeToJsMessageQueue.EvalBridgeMode(this, cordova));
@@ -226,7 +227,8 @@ public class SystemWebViewEngine implements CordovaWebViewEngine {
                     settings.getUserAgentString();
                 }
             };
-            webView.getContext().registerReceiver(this.receiver, intentFilter);
+            // Register on the application context: the WebView's context may be swapped later
+            webView.getContext().getApplicationContext().registerReceiver(this.receiver, intentFilter);
         }
         // end CB-1405
     }
@@ -315,7 +317,7 @@ public class SystemWebViewEngine implements CordovaWebViewEngine {
         // unregister the receiver
         if (receiver != null) {
             try {
-                webView.getContext().unregisterReceiver(receiver);
+                webView.getContext().getApplicationContext().unregisterReceiver(receiver);
             } catch (Exception e) {
                 LOG.e(TAG, "Error unregistering configuration receiver: " + e.getMessage(), e);
             }
@@ -0,0 +1,257 @@
+package com.example.cordovaperformance;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.webkit.ValueCallback;
+import android.webkit.WebMessage;
+import android.webkit.WebMessagePort;
+import android.webkit.WebView;
+import org.apache.cordova.CordovaPlugin;
+import org.apache.cordova.LOG;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Native-to-JS command channel.
+ *
+ * Instead of sending a new script to evaluateJavascript() for every call (each of which
+ * V8 has to parse and compile), a small dispatcher is installed once per page load and
+ * handed a WebMessagePort. Native code then invokes commands the page registered in
+ * window.nativeCommands.handlers by id, with JSON arguments. Calls made during a frame
+ * are sent as one batch, and the page acknowledges each batch.
+ *
+ * Registered as a plugin only to receive the page lifecycle messages. All methods must be
+ * called on the main thread.
+ */
+public class CommandChannel extends CordovaPlugin {
+    public static final String SERVICE = "CommandChannel";
+    private static final String TAG = "WebViewPerformance";
+    private static final String PORT_MESSAGE = "cordova-command-channel";
+
+    // Compiled once per page; looks handlers up on every call so the page may register them at any time
+    private static final String DISPATCHER_SOURCE = "(function() {"
+            + "var commands = window.nativeCommands = window.nativeCommands || { handlers: {} };"
+            + "if (commands.installed) { return; }"
+            + "commands.installed = true;"
+            // Only the app posts with no source and an empty origin; frames and scripts cannot
+            + "window.addEventListener('message', function onPort(e) {"
+            + "  if (e.source !== null || e.origin !== '' || e.data !== '" + PORT_MESSAGE + "'"
+            + "      || !e.ports || !e.ports.length) { return; }"
+            + "  window.removeEventListener('message', onPort);"
+            + "  var port = e.ports[0];"
+            + "  port.onmessage = function(m) {"
+            + "    var batch = JSON.parse(m.data), errors = [];"
+            + "    for (var i = 0; i < batch.calls.length; i++) {"
+            + "      var call = batch.calls[i], handler = commands.handlers[call[0]];"
+            + "      if (!handler) { errors.push([i, 'Unknown command: ' + call[0]]); continue; }"
+            + "      try { handler.apply(null, call[1]); } catch (err) { errors.push([i, String(err)]); }"
+            + "    }"
+            + "    port.postMessage(JSON.stringify({ ack: batch.seq, errors: errors }));"
+            + "  };"
+            + "});"
+            + "})();";
+
+    private static class Invocation {
+        final String command;
+        final JSONArray args;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Invocation(String command, JSONArray args) {
+            this.command = command;
+            this.args = args;
+        }
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ArrayList<Invocation> queued = new ArrayList<>();
+    private final Map<Integer, List<Invocation>> unacknowledged = new HashMap<>();
+    private WebMessagePort port;
+    // The page has no origin the port could be posted to safely (e.g. file:)
+    private boolean unavailable = false;
+    private int nextBatchSeq = 1;
+    private boolean flushScheduled = false;
+
+    /**
+     * Invoke a command the page registered. Calls are queued until the channel is
+     * installed and sent once per frame.
+     * @return a future completed once the page has run the command, or exceptionally
+     *         if the command is unknown or threw
+     */
+    public CompletableFuture<Void> invoke(String command, Object... args) {
+        JSONArray jsonArgs = new JSONArray();
+        for (Object arg : args) {
+            jsonArgs.put(arg);
+        }
+        Invocation invocation = new Invocation(command, jsonArgs);
+        if (unavailable) {
+            invocation.future.completeExceptionally(unavailableError());
+            return invocation.future;
+        }
+        queued.add(invocation);
+        scheduleFlush();
+        return invocation.future;
+    }
+
+    /**
+     * Send what is queued now instead of on the next frame,
+     * for callers that already run at a frame boundary.
+     */
+    public void flush() {
+        if (port == null || queued.isEmpty()) {
+            return;
+        }
+        int seq = nextBatchSeq++;
+        JSONArray calls = new JSONArray();
+        for (Invocation invocation : queued) {
+            calls.put(new JSONArray().put(invocation.command).put(invocation.args));
+        }
+        JSONObject batch = new JSONObject();
+        try {
+            batch.put("seq", seq);
+            batch.put("calls", calls);
+        } catch (JSONException e) {
+            // Only fails for non-finite numbers in the arguments
+            failAll(queued, e);
+            queued.clear();
+            return;
+        }
+        unacknowledged.put(seq, new ArrayList<>(queued));
+        queued.clear();
+        port.postMessage(new WebMessage(batch.toString()));
+    }
+
+    public boolean isInstalled() {
+        return port != null;
+    }
+
+    @Override
+    public Object onMessage(String id, Object data) {
+        if ("onPageStarted".equals(id)) {
+            // The old document and its port are gone; keep queued calls for the new one
+            closePort();
+            unavailable = false;
+        } else if ("onPageFinished".equals(id)) {
+            install();
+        }
+        return null;
+    }
+
+    @Override
+    public void onDestroy() {
+        closePort();
+        failAll(queued, new CancellationException("WebView destroyed"));
+        queued.clear();
+    }
+
+    private void install() {
+        final WebView view = (WebView) webView.getView();
+        if (port != null) {
+            return;
+        }
+        final Uri origin = targetOrigin(view.getUrl());
+        if (origin == null) {
+            LOG.w(TAG, "⚠️  No command channel for " + view.getUrl() + ": the page has no origin to post the port to");
+            unavailable = true;
+            failAll(queued, unavailableError());
+            queued.clear();
+            return;
+        }
+        view.evaluateJavascript(DISPATCHER_SOURCE, new ValueCallback<String>() {
+            @Override
+            public void onReceiveValue(String value) {
+                if (port != null) {
+                    return;
+                }
+                WebMessagePort[] channel = view.createWebMessageChannel();
+                port = channel[0];
+                port.setWebMessageCallback(new WebMessagePort.WebMessageCallback() {
+                    @Override
+                    public void onMessage(WebMessagePort messagePort, WebMessage message) {
+                        onAcknowledged(message.getData());
+                    }
+                }, mainHandler);
+                view.postWebMessage(new WebMessage(PORT_MESSAGE, new WebMessagePort[] { channel[1] }), origin);
+                LOG.d(TAG, "📨 Command channel installed");
+                scheduleFlush();
+            }
+        });
+    }
+
+    private void onAcknowledged(String data) {
+        try {
+            JSONObject ack = new JSONObject(data);
+            List<Invocation> batch = unacknowledged.remove(ack.getInt("ack"));
+            if (batch == null) {
+                return;
+            }
+            JSONArray errors = ack.getJSONArray("errors");
+            for (int i = 0; i < errors.length(); i++) {
+                JSONArray error = errors.getJSONArray(i);
+                batch.get(error.getInt(0)).future.completeExceptionally(
+                        new IllegalStateException(error.getString(1)));
+            }
+            for (Invocation invocation : batch) {
+                invocation.future.complete(null);
+            }
+        } catch (JSONException e) {
+            LOG.e(TAG, "❌ Malformed command channel acknowledgement: " + data, e);
+        }
+    }
+
+    private void scheduleFlush() {
+        if (port == null || flushScheduled || queued.isEmpty()) {
+            return;
+        }
+        flushScheduled = true;
+        Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                flushScheduled = false;
+                flush();
+            }
+        });
+    }
+
+    private void closePort() {
+        if (port != null) {
+            port.close();
+            port = null;
+        }
+        CancellationException cancelled = new CancellationException("Page unloaded");
+        for (List<Invocation> batch : unacknowledged.values()) {
+            failAll(batch, cancelled);
+        }
+        unacknowledged.clear();
+    }
+
+    private static void failAll(List<Invocation> invocations, Throwable error) {
+        for (Invocation invocation : invocations) {
+            invocation.future.completeExceptionally(error);
+        }
+    }
+
+    private static IllegalStateException unavailableError() {
+        return new IllegalStateException("The command channel needs an http(s) page");
+    }
+
+    /**
+     * Only the page's own origin may receive the port. file: pages have an opaque origin,
+     * and "*" would hand the port to whatever document is loaded by then, so they get null.
+     */
+    private static Uri targetOrigin(String url) {
+        Uri uri = url != null ? Uri.parse(url) : null;
+        if (uri == null || uri.getAuthority() == null || "file".equals(uri.getScheme())) {
+            return null;
+        }
+        return Uri.parse(uri.getScheme() + "://" + uri.getAuthority());
+    }
+}
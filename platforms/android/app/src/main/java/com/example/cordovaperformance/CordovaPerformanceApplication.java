@@ -0,0 +1,36 @@
+package com.example.cordovaperformance;
+
+import android.app.Application;
+import org.apache.cordova.AsyncLogBackend;
+import org.apache.cordova.CordovaConfig;
+import org.apache.cordova.CordovaPreferences;
+import org.apache.cordova.LOG;
+import java.io.File;
+
+/**
+ * Starts the WebView preload as part of process start, before any activity exists,
+ * so LoginActivity only has to attach the already loading WebView.
+ * Its lifecycle under memory pressure is handled by WebViewLifecycleManager.
+ */
+public class CordovaPerformanceApplication extends Application {
+    private static final String TAG = "WebViewPerformance";
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        CordovaPreferences preferences = CordovaConfig.get(this).newPreferences();
+        // Cordova's logging goes through a background writer. The binary copy for field
+        // diagnostics holds urls and plugin traffic, so it is only kept when config.xml
+        // asks for it with <preference name="DiagnosticLogFile" value="true" />
+        File binaryLog = preferences.getBoolean("DiagnosticLogFile", false)
+                ? new File(getNoBackupFilesDir(), "cordova-log.bin") : null;
+        LOG.setBackend(new AsyncLogBackend(4096, binaryLog, 512 * 1024));
+        // Set before anything logs, so disabled levels cost nothing from the first call
+        LOG.setLogLevel(preferences.getString("loglevel", "ERROR"));
+        LOG.d(TAG, "🚀 Application onCreate - starting WebView preload");
+        WebViewManager.getInstance().preloadWebView(this);
+
+        // Pauses, trims and restores the WebView as the app goes to the background and back
+        new WebViewLifecycleManager(WebViewManager.getInstance()).register(this);
+    }
+}
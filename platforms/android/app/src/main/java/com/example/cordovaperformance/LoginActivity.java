@@ -2,12 +2,14 @@ package com.example.cordovaperformance;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.View;
 import android.webkit.WebView;
 import android.widget.Button;
 import android.widget.FrameLayout;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.Lifecycle;
+import org.apache.cordova.LOG;
+import org.apache.cordova.StartupTimeline;
 import org.apache.cordova.engine.SystemWebView;
 
 /**
@@ -20,25 +22,20 @@ public class LoginActivity extends AppCompatActivity {
     private FrameLayout webViewContainer;
     private Button btnLogin;
     private WebViewManager webViewManager;
-    
+
     // Performance tracking
-    private long activityStartTime = 0;
-    private long displayStartTime = 0;
+    private final StartupTimeline timeline = StartupTimeline.getInstance();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
-        activityStartTime = System.currentTimeMillis();
-        Log.d(TAG, "========================================");
-        Log.d(TAG, "🏁 LoginActivity onCreate started");
-        
+        timeline.beginSection("LoginActivity.onCreate");
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_login);
 
+        timeline.beginSection("LoginActivity.inflate");
+        setContentView(R.layout.activity_login);
         webViewContainer = findViewById(R.id.webViewContainer);
         btnLogin = findViewById(R.id.btnLogin);
-
-        long layoutInflateTime = System.currentTimeMillis() - activityStartTime;
-        Log.d(TAG, "⏱️  Layout inflation time: " + layoutInflateTime + "ms");
+        timeline.endSection("LoginActivity.inflate");
 
         // Initialize and preload WebView
         initializeWebView();
@@ -47,7 +44,7 @@ public class LoginActivity extends AppCompatActivity {
         btnLogin.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                Log.d(TAG, "🔄 Navigating to MainActivity...");
+                LOG.d(TAG, "🔄 Navigating to MainActivity...");
                 // Navigate to MainActivity
                 Intent intent = new Intent(LoginActivity.this, MainActivity.class);
                 startActivity(intent);
@@ -55,68 +52,58 @@ public class LoginActivity extends AppCompatActivity {
                 // finish();
             }
         });
-        
-        long totalActivityTime = System.currentTimeMillis() - activityStartTime;
-        Log.d(TAG, "✅ LoginActivity onCreate completed: " + totalActivityTime + "ms");
-        Log.d(TAG, "========================================");
+
+        timeline.endSection("LoginActivity.onCreate");
     }
 
     private void initializeWebView() {
-        long initStart = System.currentTimeMillis();
-        Log.d(TAG, "🌐 Initializing WebView...");
-        
         // Get singleton instance
         webViewManager = WebViewManager.getInstance();
 
-        // Preload WebView if not already preloaded
+        // The Application starts the preload; this only covers the case where it
+        // was cleared since (e.g. after logout)
         if (!webViewManager.isPreloaded()) {
-            // Option 1: Use default URL (file:///android_asset/www/index.html)
-            webViewManager.preloadWebView(this);
+            // Option 1: Use the launch URL from config.xml (https://localhost/index.html)
+            webViewManager.preloadWebView(getApplicationContext());
             
             // Option 2: Pass custom URL if needed
-            // webViewManager.preloadWebView(this, "file:///android_asset/www/custom.html");
+            // webViewManager.preloadWebView(getApplicationContext(), "https://localhost/custom.html");
         }
 
-        // Show the preloaded WebView in the container for dev purposes
-        displayPreloadedWebView();
-        
-        long initEnd = System.currentTimeMillis();
-        long totalWebViewTime = initEnd - initStart;
-        Log.d(TAG, "⏱️  Total WebView initialization + display: " + totalWebViewTime + "ms");
-        
-        // Get and log the preload time from WebViewManager
-        long preloadTime = webViewManager.getPreloadTime();
-        if (preloadTime > 0) {
-            Log.d(TAG, "📈 WebView preload time: " + preloadTime + "ms");
-        }
+        // Show the preloaded WebView in the container for dev purposes, once its
+        // engine exists; waiting keeps the construction stages out of our first frame
+        webViewManager.whenStage(PreloadPipeline.Stage.ENGINE_CREATED, new PreloadPipeline.StageListener() {
+            @Override
+            public void onStageReached(PreloadPipeline.Stage stage) {
+                if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+                    displayPreloadedWebView();
+                }
+            }
+        });
+
+        // Log the whole startup once Cordova is ready in the page
+        webViewManager.whenStage(PreloadPipeline.Stage.JS_READY, new PreloadPipeline.StageListener() {
+            @Override
+            public void onStageReached(PreloadPipeline.Stage stage) {
+                LOG.d(TAG, () -> timeline.getReport().toString());
+            }
+        });
     }
 
     private void displayPreloadedWebView() {
-        displayStartTime = System.currentTimeMillis();
-        Log.d(TAG, "🎨 Displaying preloaded WebView...");
-        
         // Get the preloaded WebView
         WebView webView = webViewManager.getSystemWebView();
 
         if (webView != null) {
-            // Detach from previous parent if any
-            webViewManager.detachWebView();
-
-            // Add to container
-            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
-                    FrameLayout.LayoutParams.MATCH_PARENT,
-                    FrameLayout.LayoutParams.MATCH_PARENT
-            );
-            webViewContainer.addView(webView, params);
-
-            // Navigate to home view (default)
-            webViewManager.navigateToView("home");
-            
-            long displayTime = System.currentTimeMillis() - displayStartTime;
-            Log.d(TAG, "⏱️  WebView display time: " + displayTime + "ms");
-            Log.d(TAG, "✅ WebView attached and visible");
+            // Move into our container and bind this activity
+            timeline.beginSection("LoginActivity.attachWebView");
+            webViewManager.attachWebView(this, webViewContainer);
+            timeline.endSection("LoginActivity.attachWebView");
+
+            // Navigate to home view (default); queued until the page is ready
+            webViewManager.navigateTo(ViewRouter.Route.HOME);
         } else {
-            Log.e(TAG, "❌ WebView is null - cannot display");
+            LOG.e(TAG, "❌ WebView is null - cannot display");
         }
     }
 
@@ -134,7 +121,7 @@ public class LoginActivity extends AppCompatActivity {
         super.onPause();
         // Detach WebView when leaving activity (will be reused in MainActivity)
         if (webViewManager != null) {
-            webViewManager.detachWebView();
+            webViewManager.detachWebView(this);
         }
     }
 
@@ -144,7 +131,7 @@ public class LoginActivity extends AppCompatActivity {
         // Don't destroy WebView here - it needs to persist
         // Only detach it
         if (webViewManager != null) {
-            webViewManager.detachWebView();
+            webViewManager.detachWebView(this);
         }
     }
 }
@@ -20,13 +20,12 @@
 package com.example.cordovaperformance;
 
 import android.os.Bundle;
-import android.util.Log;
-import android.view.ViewGroup;
 import android.webkit.WebView;
 import android.widget.FrameLayout;
 
 import org.apache.cordova.*;
 import org.apache.cordova.engine.SystemWebView;
+import java.util.function.BiConsumer;
 
 /**
  * MainActivity - Uses the preloaded singleton WebView
@@ -37,17 +36,14 @@ public class MainActivity extends CordovaActivity
     private static final String TAG = "MainPerformance";
     private WebViewManager webViewManager;
     private SystemWebView webView;
-    
+
     // Performance tracking
-    private long activityStartTime = 0;
+    private final StartupTimeline timeline = StartupTimeline.getInstance();
 
     @Override
     public void onCreate(Bundle savedInstanceState)
     {
-        activityStartTime = System.currentTimeMillis();
-        Log.d(TAG, "========================================");
-        Log.d(TAG, "🏁 MainActivity onCreate started");
-        
+        timeline.beginSection("MainActivity.onCreate");
         super.onCreate(savedInstanceState);
 
         // Get the singleton WebView manager
@@ -55,79 +51,69 @@ public class MainActivity extends CordovaActivity
 
         // Use the preloaded WebView instead of loading again
         if (webViewManager.isPreloaded()) {
-            Log.d(TAG, "⚡ Using preloaded WebView - NO RELOAD!");
-            usePreloadedWebView();
+            LOG.d(TAG, "⚡ Using preloaded WebView - NO RELOAD!");
         } else {
-            // Fallback: If somehow WebView wasn't preloaded, load it now
-            Log.w(TAG, "⚠️  WebView not preloaded, loading now...");
-            long fallbackStart = System.currentTimeMillis();
-            super.onCreate(savedInstanceState);
-            loadUrl(launchUrl);
-            long fallbackTime = System.currentTimeMillis() - fallbackStart;
-            Log.d(TAG, "⏱️  Fallback load time: " + fallbackTime + "ms");
+            // Fallback: If somehow WebView wasn't preloaded, start it now. It is built
+            // from the same config.xml snapshot super.onCreate() just loaded, and
+            // attaching runs its stages right away.
+            LOG.w(TAG, "⚠️  WebView not preloaded, loading now...");
+            webViewManager.preloadWebView(getApplicationContext(), launchUrl);
         }
-        
-        long totalActivityTime = System.currentTimeMillis() - activityStartTime;
-        Log.d(TAG, "✅ MainActivity onCreate completed: " + totalActivityTime + "ms");
-        Log.d(TAG, "========================================");
+        usePreloadedWebView();
+
+        timeline.endSection("MainActivity.onCreate");
     }
 
     private void usePreloadedWebView() {
-        long reuseStart = System.currentTimeMillis();
-        Log.d(TAG, "🔄 Reusing preloaded WebView...");
-        
-        // Get the preloaded WebView
+        // Report how far the preload got before we needed it
+        PreloadPipeline.Stage stageAtAttach = webViewManager.getCurrentStage();
+        LOG.d(TAG, () -> "📶 Preload stage at attach: " + (stageAtAttach != null ? stageAtAttach : "NOT STARTED"));
+
+        timeline.beginSection("MainActivity.attachWebView");
+        // Create a container for the WebView
+        FrameLayout container = new FrameLayout(this);
+
+        // Move WebView into the container and bind this activity;
+        // this runs any construction stage that has not run yet
+        webViewManager.attachWebView(this, container);
         webView = webViewManager.getSystemWebView();
 
         if (webView != null) {
-            long detachStart = System.currentTimeMillis();
-            // Detach from previous parent
-            webViewManager.detachWebView();
-            long detachTime = System.currentTimeMillis() - detachStart;
-            Log.d(TAG, "⏱️  Detach time: " + detachTime + "ms");
-
-            long attachStart = System.currentTimeMillis();
-            // Create a container for the WebView
-            FrameLayout container = new FrameLayout(this);
-            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
-                    ViewGroup.LayoutParams.MATCH_PARENT,
-                    ViewGroup.LayoutParams.MATCH_PARENT
-            );
-
-            // Add WebView to container
-            container.addView(webView, params);
-
             // Set the container as content view
             setContentView(container);
-            long attachTime = System.currentTimeMillis() - attachStart;
-            Log.d(TAG, "⏱️  Attach time: " + attachTime + "ms");
-
-            // Navigate to home view by default
-            webViewManager.navigateToView("settings");
-
-            long totalReuseTime = System.currentTimeMillis() - reuseStart;
-            Log.d(TAG, "⏱️  Total WebView reuse time: " + totalReuseTime + "ms");
-            Log.d(TAG, "✅ Preloaded WebView attached to MainActivity");
-            
-            // Show performance comparison
-            long preloadTime = webViewManager.getPreloadTime();
-            if (preloadTime > 0) {
-                Log.d(TAG, "📊 Performance Comparison:");
-                Log.d(TAG, "   Initial preload: " + preloadTime + "ms");
-                Log.d(TAG, "   Reuse in MainActivity: " + totalReuseTime + "ms");
-                Log.d(TAG, "   🚀 Performance gain: " + (preloadTime - totalReuseTime) + "ms faster!");
-            }
+            timeline.endSection("MainActivity.attachWebView");
+
+            // Navigate to the settings view; queued until the page is ready
+            webViewManager.navigateTo(ViewRouter.Route.SETTINGS).whenComplete(
+                    new BiConsumer<ViewRouter.Route, Throwable>() {
+                        @Override
+                        public void accept(ViewRouter.Route route, Throwable error) {
+                            if (error != null) {
+                                LOG.e(TAG, "❌ Navigation to settings failed", error);
+                            } else {
+                                timeline.mark("MainActivity.settingsPainted");
+                                LOG.d(TAG, () -> timeline.getReport().toString());
+                            }
+                        }
+                    });
         } else {
-            Log.e(TAG, "❌ WebView is null - cannot reuse");
+            timeline.endSection("MainActivity.attachWebView");
+            LOG.e(TAG, "❌ WebView is null - cannot reuse");
         }
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        // If WebView was detached, reattach it
-        if (webViewManager != null && webView != null && webView.getParent() == null) {
-            usePreloadedWebView();
+        // If WebView was detached, reattach it. Look it up again: it is a new
+        // instance if the renderer died in the meantime.
+        if (webViewManager != null && webView != null) {
+            SystemWebView current = webViewManager.getSystemWebView();
+            if (current == null || current.getParent() == null) {
+                usePreloadedWebView();
+            } else {
+                webView = current;
+            }
         }
     }
 
@@ -136,7 +122,7 @@ public class MainActivity extends CordovaActivity
         super.onPause();
         // Detach but don't destroy - WebView persists
         if (webViewManager != null) {
-            webViewManager.detachWebView();
+            webViewManager.detachWebView(this);
         }
     }
 
@@ -146,7 +132,7 @@ public class MainActivity extends CordovaActivity
         // Don't destroy WebView - it needs to persist across activities
         // Only destroy on logout or app kill
         if (webViewManager != null) {
-            webViewManager.detachWebView();
+            webViewManager.detachWebView(this);
         }
     }
 
@@ -154,10 +140,7 @@ public class MainActivity extends CordovaActivity
     public void onBackPressed() {
         // Handle back button - navigate within WebView if possible
         if (webView != null) {
-            webView.evaluateJavascript(
-                "if(window.handleBackButton) { window.handleBackButton(); } else { window.history.back(); }", 
-                null
-            );
+            webViewManager.invokeCommand("back");
         } else {
             super.onBackPressed();
         }
@@ -173,11 +156,11 @@ public class MainActivity extends CordovaActivity
     }
 
     /**
-     * Call this when user logs out to destroy the WebView
+     * Call this when user logs out to release the WebView back to the pool
      */
     public void logout() {
         if (webViewManager != null) {
-            webViewManager.destroy();
+            webViewManager.clearWebView();
         }
         finish();
     }
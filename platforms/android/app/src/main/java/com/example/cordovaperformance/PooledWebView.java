@@ -0,0 +1,299 @@
+package com.example.cordovaperformance;
+
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.view.ViewGroup;
+import android.webkit.WebSettings;
+import androidx.appcompat.app.AppCompatActivity;
+import org.apache.cordova.CordovaConfig;
+import org.apache.cordova.CordovaPreferences;
+import org.apache.cordova.CordovaWebViewImpl;
+import org.apache.cordova.LOG;
+import org.apache.cordova.PluginEntry;
+import org.apache.cordova.StartupTimeline;
+import org.apache.cordova.engine.SystemWebView;
+import org.apache.cordova.engine.SystemWebViewEngine;
+import java.util.ArrayList;
+
+/**
+ * A preloaded WebView: the SystemWebView, its engine, the CordovaWebViewImpl
+ * (and with it the PluginManager) and the page that was loaded into it.
+ * Instances are created by WebViewPool and leased out to WebViewManager.
+ *
+ * Construction is staged through a PreloadPipeline, one stage per main-thread idle period;
+ * getSystemWebView() and getCordovaWebView() return null until ENGINE_CREATED.
+ * attach() runs whatever is still pending, since the view is needed right away.
+ *
+ * The WebView is built on a MutableContextWrapper around the application context.
+ * attach() swaps in the activity that shows it and detach() swaps it back out,
+ * so an idle instance never holds on to an activity.
+ *
+ * The page's session state (current view and serialized app state, see SessionStatePlugin)
+ * is kept here so it can be restored into a replacement if the renderer dies.
+ */
+public class PooledWebView {
+    private final PreloadPipeline pipeline = new PreloadPipeline();
+    private final ViewRouter router;
+    private final CommandChannel commandChannel = new CommandChannel();
+    private final RebindableCordovaInterface cordovaInterface;
+    private final MutableContextWrapper contextWrapper;
+    private final String url;
+    private CordovaPreferences preferences;
+    private SystemWebView systemWebView;
+    private CordovaWebViewImpl cordovaWebView;
+    private AppCompatActivity boundActivity;
+    private String savedView;
+    private String savedState;
+    private volatile boolean rendererGone = false;
+
+    private PooledWebView(Context context, String url) {
+        this.contextWrapper = new MutableContextWrapper(context.getApplicationContext());
+        this.cordovaInterface = new RebindableCordovaInterface(context);
+        this.url = url;
+        this.router = new ViewRouter(this);
+
+        pipeline.addStep(PreloadPipeline.Stage.PROVIDER_READY, new Runnable() {
+            @Override
+            public void run() {
+                warmUpProvider();
+            }
+        });
+        pipeline.addStep(PreloadPipeline.Stage.ENGINE_CREATED, new Runnable() {
+            @Override
+            public void run() {
+                createEngine();
+            }
+        });
+        pipeline.addStep(PreloadPipeline.Stage.PLUGINS_INITIALIZED, new Runnable() {
+            @Override
+            public void run() {
+                initPlugins();
+            }
+        });
+        // PAGE_LOADED is reported by PreloadReadinessPlugin, not by this step
+        pipeline.addStep(null, new Runnable() {
+            @Override
+            public void run() {
+                startPageLoad();
+            }
+        });
+    }
+
+    /**
+     * Create a WebView for the url. The stages run in the following idle periods
+     * of the main thread.
+     */
+    static PooledWebView create(Context context, String url) {
+        PooledWebView pooled = new PooledWebView(context, url);
+        pooled.pipeline.start();
+        return pooled;
+    }
+
+    private void warmUpProvider() {
+        // Loads the WebView provider (Chromium) without creating a view
+        StartupTimeline.getInstance().beginSection(StartupTimeline.Mark.PROVIDER_LOAD);
+        WebSettings.getDefaultUserAgent(contextWrapper.getApplicationContext());
+        StartupTimeline.getInstance().endSection(StartupTimeline.Mark.PROVIDER_LOAD);
+    }
+
+    private void createEngine() {
+        // Same preferences a CordovaActivity would get; the engine applies the
+        // WebView settings from them in init()
+        preferences = CordovaConfig.get(contextWrapper.getApplicationContext()).newPreferences();
+        LOG.setLogLevel(preferences.getString("loglevel", "ERROR"));
+
+        // Create SystemWebView on a swappable application context
+        StartupTimeline.getInstance().beginSection(StartupTimeline.Mark.WEBVIEW_CONSTRUCTION);
+        systemWebView = new SystemWebView(contextWrapper);
+        StartupTimeline.getInstance().endSection(StartupTimeline.Mark.WEBVIEW_CONSTRUCTION);
+
+        // Create Cordova WebView without an Activity; one is bound on attach()
+        cordovaWebView = new CordovaWebViewImpl(new SystemWebViewEngine(systemWebView, preferences));
+    }
+
+    private void initPlugins() {
+        // The plugins from config.xml (AllowList, SplashScreen, ...) plus our readiness and paint
+        // reporters and the command channel
+        ArrayList<PluginEntry> pluginEntries = CordovaConfig.get(contextWrapper.getApplicationContext()).newPluginEntries();
+        pluginEntries.add(new PluginEntry(PreloadReadinessPlugin.SERVICE, new PreloadReadinessPlugin(pipeline)));
+        pluginEntries.add(new PluginEntry(ViewRouterPlugin.SERVICE, new ViewRouterPlugin(router)));
+        pluginEntries.add(new PluginEntry(CommandChannel.SERVICE, commandChannel));
+        pluginEntries.add(new PluginEntry(SessionStatePlugin.SERVICE, new SessionStatePlugin(this)));
+        cordovaWebView.init(cordovaInterface, pluginEntries, preferences);
+        cordovaInterface.onCordovaInit(cordovaWebView.getPluginManager());
+    }
+
+    private void startPageLoad() {
+        cordovaWebView.loadUrlIntoView(url, false);
+    }
+
+    /**
+     * Run the construction stages that have not run yet (main thread only)
+     */
+    void ensureCreated() {
+        pipeline.runPendingSteps();
+    }
+
+    public PreloadPipeline getPipeline() {
+        return pipeline;
+    }
+
+    public ViewRouter getRouter() {
+        return router;
+    }
+
+    public CommandChannel getCommandChannel() {
+        return commandChannel;
+    }
+
+    public SystemWebView getSystemWebView() {
+        return systemWebView;
+    }
+
+    public CordovaWebViewImpl getCordovaWebView() {
+        return cordovaWebView;
+    }
+
+    public RebindableCordovaInterface getCordovaInterface() {
+        return cordovaInterface;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public AppCompatActivity getBoundActivity() {
+        return boundActivity;
+    }
+
+    /**
+     * Called by SessionStatePlugin on the bridge thread
+     */
+    synchronized void saveSessionState(String view, String state) {
+        savedView = view;
+        savedState = state;
+    }
+
+    /**
+     * The view the page last reported, or null
+     */
+    public synchronized String getSavedView() {
+        return savedView;
+    }
+
+    /**
+     * The app state the page last reported (JSON), or null
+     */
+    public synchronized String getSavedState() {
+        return savedState;
+    }
+
+    void markRendererGone() {
+        rendererGone = true;
+    }
+
+    /**
+     * True once the renderer of this WebView has died; it can then only be destroyed
+     */
+    public boolean isRendererGone() {
+        return rendererGone;
+    }
+
+    /**
+     * Add the WebView to a container of the given activity and make the activity
+     * its context and the Cordova activity.
+     */
+    void attach(AppCompatActivity activity, ViewGroup container) {
+        ensureCreated();
+        detach();
+        boundActivity = activity;
+        contextWrapper.setBaseContext(activity);
+        cordovaInterface.setActivity(activity);
+        container.addView(systemWebView, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+    }
+
+    /**
+     * Detach from the current parent, if any, and release the activity
+     */
+    void detach() {
+        if (systemWebView != null && systemWebView.getParent() != null) {
+            ((ViewGroup) systemWebView.getParent()).removeView(systemWebView);
+        }
+        boundActivity = null;
+        contextWrapper.setBaseContext(contextWrapper.getApplicationContext());
+        cordovaInterface.setActivity(null);
+    }
+
+    /**
+     * Fire the Cordova pause event and pause JavaScript timers
+     */
+    void pause() {
+        if (cordovaWebView != null && cordovaWebView.isInitialized()) {
+            cordovaWebView.handlePause(false);
+        }
+    }
+
+    void resume() {
+        if (cordovaWebView != null && cordovaWebView.isInitialized()) {
+            cordovaWebView.handleResume(false);
+        }
+    }
+
+    /**
+     * Drop the in-memory resource cache; the disk cache is kept
+     */
+    void dropCaches() {
+        if (systemWebView != null) {
+            systemWebView.clearCache(false);
+        }
+    }
+
+    /**
+     * Remove per-session state so the instance can be handed out again: form data,
+     * the history and the page itself, which is loaded again from the start url so
+     * nothing in its JS heap carries over. Storage, cookies and the HTTP cache are
+     * shared by every WebView of the app; WebViewManager.clearWebView() clears them on logout.
+     */
+    void scrub() {
+        detach();
+        router.reset();
+        saveSessionState(null, null);
+        if (systemWebView == null) {
+            // Nothing has been created or loaded yet
+            return;
+        }
+        systemWebView.clearFormData();
+        if (cordovaWebView == null || !cordovaWebView.isInitialized()) {
+            // The pending startPageLoad() step loads the page
+            return;
+        }
+        pipeline.resetFrom(PreloadPipeline.Stage.PAGE_LOADED);
+        pipeline.whenStage(PreloadPipeline.Stage.PAGE_LOADED, new PreloadPipeline.StageListener() {
+            @Override
+            public void onStageReached(PreloadPipeline.Stage stage) {
+                if (systemWebView != null) {
+                    systemWebView.clearHistory();
+                }
+            }
+        });
+        // A new document: the last user's JS heap goes with the old one
+        cordovaWebView.loadUrlIntoView(url, false);
+    }
+
+    /**
+     * Tear down the WebView and its plugins
+     */
+    void destroy() {
+        pipeline.cancel();
+        router.reset();
+        detach();
+        if (cordovaWebView != null && cordovaWebView.isInitialized()) {
+            cordovaWebView.handleDestroy();
+        } else if (systemWebView != null) {
+            // Plugins never initialized, so Cordova has nothing to tear down
+            systemWebView.destroy();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.cordovaperformance;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import org.apache.cordova.LOG;
+import org.apache.cordova.StartupTimeline;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Staged preload of a WebView.
+ * The construction steps (provider warm-up, engine creation, plugin init, page load)
+ * each run in their own main-thread idle period so no single frame pays for all of them.
+ * PAGE_LOADED and JS_READY are not steps: they are reported by the page itself
+ * (onPageFinished and the JS ready callback, see PreloadReadinessPlugin).
+ *
+ * Listeners are always called on the main thread.
+ */
+public class PreloadPipeline {
+    private static final String TAG = "WebViewPerformance";
+
+    public enum Stage {
+        PROVIDER_READY,
+        ENGINE_CREATED,
+        PLUGINS_INITIALIZED,
+        PAGE_LOADED,
+        JS_READY
+    }
+
+    public interface StageListener {
+        void onStageReached(Stage stage);
+    }
+
+    private static class Step {
+        final Stage stage;
+        final Runnable work;
+
+        Step(Stage stage, Runnable work) {
+            this.stage = stage;
+            this.work = work;
+        }
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ArrayDeque<Step> pendingSteps = new ArrayDeque<>();
+    private final EnumMap<Stage, Long> reachedAt = new EnumMap<>(Stage.class);
+    private final EnumMap<Stage, List<StageListener>> listeners = new EnumMap<>(Stage.class);
+    private final EnumMap<Stage, CountDownLatch> latches = new EnumMap<>(Stage.class);
+    private boolean idleHandlerInstalled = false;
+    private long startTime = 0;
+
+    public PreloadPipeline() {
+        for (Stage stage : Stage.values()) {
+            latches.put(stage, new CountDownLatch(1));
+        }
+    }
+
+    /**
+     * Queue a construction step. When stage is non-null it is reached once the step has run.
+     */
+    void addStep(Stage stage, Runnable work) {
+        pendingSteps.add(new Step(stage, work));
+    }
+
+    /**
+     * Run the queued steps, one per main-thread idle period
+     */
+    void start() {
+        startTime = SystemClock.elapsedRealtimeNanos();
+        if (idleHandlerInstalled || pendingSteps.isEmpty()) {
+            return;
+        }
+        idleHandlerInstalled = true;
+        Looper.getMainLooper().getQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                runNextStep();
+                idleHandlerInstalled = !pendingSteps.isEmpty();
+                return idleHandlerInstalled;
+            }
+        });
+    }
+
+    /**
+     * Run every step that is still pending right now (main thread only).
+     * Used when the WebView is needed before the idle periods got to it.
+     */
+    void runPendingSteps() {
+        if (!pendingSteps.isEmpty()) {
+            LOG.d(TAG, () -> "⏩ Running " + pendingSteps.size() + " pending preload steps now");
+        }
+        while (!pendingSteps.isEmpty()) {
+            runNextStep();
+        }
+    }
+
+    /**
+     * Drop the steps that have not run yet
+     */
+    void cancel() {
+        pendingSteps.clear();
+    }
+
+    private void runNextStep() {
+        Step step = pendingSteps.poll();
+        if (step == null) {
+            return;
+        }
+        String section = "preload:" + (step.stage != null ? step.stage : "loadUrl");
+        StartupTimeline.getInstance().beginSection(section);
+        try {
+            step.work.run();
+        } finally {
+            StartupTimeline.getInstance().endSection(section);
+        }
+        if (step.stage != null) {
+            markReached(step.stage);
+        }
+    }
+
+    /**
+     * Record that a stage was reached. May be called from any thread.
+     */
+    void markReached(final Stage stage) {
+        List<StageListener> toNotify;
+        synchronized (this) {
+            if (reachedAt.containsKey(stage)) {
+                return;
+            }
+            reachedAt.put(stage, SystemClock.elapsedRealtimeNanos());
+            latches.get(stage).countDown();
+            toNotify = listeners.remove(stage);
+        }
+        if (toNotify != null) {
+            for (final StageListener listener : toNotify) {
+                runOnMain(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onStageReached(stage);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Forget the given stage and every later one, e.g. when the page starts loading again
+     */
+    synchronized void resetFrom(Stage stage) {
+        for (Stage s : Stage.values()) {
+            if (s.ordinal() >= stage.ordinal() && reachedAt.remove(s) != null) {
+                latches.put(s, new CountDownLatch(1));
+            }
+        }
+    }
+
+    public synchronized boolean hasReached(Stage stage) {
+        return reachedAt.containsKey(stage);
+    }
+
+    /**
+     * The latest stage reached so far, or null if none
+     */
+    public synchronized Stage getCurrentStage() {
+        Stage current = null;
+        for (Stage stage : reachedAt.keySet()) {
+            current = stage;
+        }
+        return current;
+    }
+
+    /**
+     * Time from start() to the given stage in milliseconds, or -1 if not reached
+     */
+    public synchronized long getStageTime(Stage stage) {
+        Long at = reachedAt.get(stage);
+        return at != null ? (at - startTime) / 1000000 : -1;
+    }
+
+    /**
+     * Call the listener on the main thread once the stage is reached (immediately if it already was)
+     */
+    public void whenStage(final Stage stage, final StageListener listener) {
+        synchronized (this) {
+            if (!reachedAt.containsKey(stage)) {
+                List<StageListener> list = listeners.get(stage);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    listeners.put(stage, list);
+                }
+                list.add(listener);
+                return;
+            }
+        }
+        runOnMain(new Runnable() {
+            @Override
+            public void run() {
+                listener.onStageReached(stage);
+            }
+        });
+    }
+
+    /**
+     * Block until the stage is reached. Must not be called on the main thread,
+     * which is where the pipeline runs.
+     * @return true if the stage was reached before the timeout
+     */
+    public boolean awaitStage(Stage stage, long timeout, TimeUnit unit) throws InterruptedException {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("awaitStage() would block the main thread; use whenStage()");
+        }
+        CountDownLatch latch;
+        synchronized (this) {
+            latch = latches.get(stage);
+        }
+        return latch.await(timeout, unit);
+    }
+
+    private void runOnMain(Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+        } else {
+            mainHandler.post(runnable);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.cordovaperformance;
+
+import org.apache.cordova.CordovaAction;
+import org.apache.cordova.CordovaPlugin;
+import org.apache.cordova.StartupTimeline;
+
+/**
+ * Reports page readiness of a preloaded WebView to its PreloadPipeline.
+ * PAGE_LOADED comes from Cordova's onPageFinished message, JS_READY from the page
+ * calling cordova.exec(null, null, 'PreloadReadiness', 'ready', []) on deviceready.
+ */
+public class PreloadReadinessPlugin extends CordovaPlugin {
+    public static final String SERVICE = "PreloadReadiness";
+
+    private final PreloadPipeline pipeline;
+
+    public PreloadReadinessPlugin(PreloadPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @CordovaAction
+    void ready() {
+        StartupTimeline.getInstance().mark(StartupTimeline.Mark.DEVICE_READY);
+        pipeline.markReached(PreloadPipeline.Stage.JS_READY);
+    }
+
+    @Override
+    public Object onMessage(String id, Object data) {
+        if ("onPageStarted".equals(id)) {
+            // A new document: whatever was ready belonged to the old one
+            pipeline.resetFrom(PreloadPipeline.Stage.PAGE_LOADED);
+        } else if ("onPageFinished".equals(id)) {
+            String url = data != null ? data.toString() : "";
+            if (!url.startsWith("about:")) {
+                pipeline.markReached(PreloadPipeline.Stage.PAGE_LOADED);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.cordovaperformance;
+
+import android.content.Context;
+import androidx.appcompat.app.AppCompatActivity;
+import org.apache.cordova.CordovaInterfaceImpl;
+
+/**
+ * CordovaInterface that can live without an Activity.
+ * Used for WebViews preloaded from the Application: the Activity is bound
+ * when the WebView is attached to one and unbound when it is detached,
+ * so no Activity is retained while the WebView sits idle.
+ */
+public class RebindableCordovaInterface extends CordovaInterfaceImpl {
+    private final Context applicationContext;
+
+    public RebindableCordovaInterface(Context context) {
+        // Every pooled WebView has one of these; they share one thread pool
+        super(null, CordovaInterfaceImpl.getSharedThreadPool());
+        this.applicationContext = context.getApplicationContext();
+    }
+
+    /**
+     * Bind to an activity, or unbind with null
+     */
+    public void setActivity(AppCompatActivity activity) {
+        this.activity = activity;
+    }
+
+    @Override
+    public Context getContext() {
+        return activity != null ? activity : applicationContext;
+    }
+
+    @Override
+    public Object onMessage(String id, Object data) {
+        if (activity == null) {
+            // Nothing to finish while unbound
+            return null;
+        }
+        return super.onMessage(id, data);
+    }
+}
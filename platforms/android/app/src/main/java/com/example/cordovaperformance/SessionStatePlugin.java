@@ -0,0 +1,37 @@
+package com.example.cordovaperformance;
+
+import android.webkit.RenderProcessGoneDetail;
+import android.webkit.WebView;
+import org.apache.cordova.CordovaAction;
+import org.apache.cordova.CordovaPlugin;
+
+/**
+ * Keeps the page's session state on the native side, where it survives the renderer.
+ * The page calls cordova.exec(null, null, 'SessionState', 'save', [viewName, stateJson])
+ * whenever either changes.
+ *
+ * Also reports the death of the renderer to WebViewManager, which replaces the WebView
+ * and restores the saved state into the new one.
+ */
+public class SessionStatePlugin extends CordovaPlugin {
+    public static final String SERVICE = "SessionState";
+
+    private final PooledWebView pooled;
+
+    public SessionStatePlugin(PooledWebView pooled) {
+        this.pooled = pooled;
+    }
+
+    @CordovaAction
+    void save(String view, @CordovaAction.Optional String stateJson) {
+        pooled.saveSessionState(view, stateJson);
+    }
+
+    @Override
+    public boolean onRenderProcessGone(WebView view, RenderProcessGoneDetail detail) {
+        // Handled: the app keeps running and this WebView is replaced
+        pooled.markRendererGone();
+        WebViewManager.getInstance().onRendererGone(pooled, detail.didCrash());
+        return true;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.cordovaperformance;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+import android.view.Choreographer;
+import org.apache.cordova.LOG;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Native-driven navigation between the views of the single page.
+ *
+ * Navigations are queued until the page reports JS_READY, and all navigations requested
+ * before the next frame are coalesced into the latest one, which is sent as the
+ * "navigate" command of the CommandChannel. The returned future completes
+ * once the page reports (through ViewRouterPlugin) that the view has painted; futures of
+ * coalesced navigations complete with the route that was actually shown.
+ *
+ * All methods must be called on the main thread.
+ */
+public class ViewRouter {
+    private static final String TAG = "WebViewPerformance";
+
+    public enum Route {
+        HOME("home"),
+        SETTINGS("settings"),
+        PROFILE("profile");
+
+        private final String fragmentId;
+
+        Route(String fragmentId) {
+            this.fragmentId = fragmentId;
+        }
+
+        public String getFragmentId() {
+            return fragmentId;
+        }
+
+        /**
+         * The route for a fragment identifier, or null if there is none
+         */
+        public static Route fromFragmentId(String fragmentId) {
+            for (Route route : values()) {
+                if (route.fragmentId.equals(fragmentId)) {
+                    return route;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Switch latency of one route: from sending the navigation to the page to its paint
+     */
+    public static class RouteStats {
+        private int count = 0;
+        private long lastMs = 0;
+        private long maxMs = 0;
+        private long totalMs = 0;
+
+        void record(long ms) {
+            count++;
+            lastMs = ms;
+            maxMs = Math.max(maxMs, ms);
+            totalMs += ms;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getLastMs() {
+            return lastMs;
+        }
+
+        public long getMaxMs() {
+            return maxMs;
+        }
+
+        public long getAverageMs() {
+            return count > 0 ? totalMs / count : 0;
+        }
+    }
+
+    private static class Navigation {
+        final Route route;
+        final long requestedAt;
+        final List<CompletableFuture<Route>> futures = new ArrayList<>();
+        long sentAt;
+
+        Navigation(Route route, long requestedAt) {
+            this.route = route;
+            this.requestedAt = requestedAt;
+        }
+    }
+
+    private final PooledWebView webView;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final EnumMap<Route, RouteStats> stats = new EnumMap<>(Route.class);
+    private final Map<Integer, Navigation> inFlight = new HashMap<>();
+    private Navigation pending;
+    private int nextRequestId = 1;
+    private boolean flushScheduled = false;
+    private boolean waitingForReady = false;
+
+    ViewRouter(PooledWebView webView) {
+        this.webView = webView;
+        for (Route route : Route.values()) {
+            stats.put(route, new RouteStats());
+        }
+    }
+
+    /**
+     * Show the given view.
+     * @return a future completed with the route shown once it has painted
+     */
+    public CompletableFuture<Route> navigate(Route route) {
+        CompletableFuture<Route> future = new CompletableFuture<>();
+        long now = System.nanoTime();
+        if (pending == null) {
+            pending = new Navigation(route, now);
+        } else if (pending.route != route) {
+            // A newer navigation replaces the one not sent yet
+            LOG.d(TAG, () -> "🧭 Coalescing " + pending.route + " into " + route);
+            Navigation latest = new Navigation(route, pending.requestedAt);
+            latest.futures.addAll(pending.futures);
+            pending = latest;
+        }
+        pending.futures.add(future);
+        scheduleFlush();
+        return future;
+    }
+
+    public RouteStats getStats(Route route) {
+        return stats.get(route);
+    }
+
+    private void scheduleFlush() {
+        if (!webView.getPipeline().hasReached(PreloadPipeline.Stage.JS_READY)) {
+            if (!waitingForReady) {
+                waitingForReady = true;
+                webView.getPipeline().whenStage(PreloadPipeline.Stage.JS_READY, new PreloadPipeline.StageListener() {
+                    @Override
+                    public void onStageReached(PreloadPipeline.Stage stage) {
+                        waitingForReady = false;
+                        scheduleFlush();
+                    }
+                });
+            }
+            return;
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            // Everything requested until the next frame goes out as one navigation
+            Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    flushScheduled = false;
+                    flush();
+                }
+            });
+        }
+    }
+
+    private void flush() {
+        final Navigation navigation = pending;
+        pending = null;
+        if (navigation == null) {
+            return;
+        }
+        final int requestId = nextRequestId++;
+        navigation.sentAt = System.nanoTime();
+        inFlight.put(requestId, navigation);
+        beginTrace(navigation.route, requestId);
+
+        // The fragment id travels as a JSON argument, never spliced into script source
+        CommandChannel channel = webView.getCommandChannel();
+        channel.invoke("navigate", navigation.route.getFragmentId(), requestId).whenComplete(
+                new BiConsumer<Void, Throwable>() {
+                    @Override
+                    public void accept(Void result, Throwable error) {
+                        if (error != null && inFlight.remove(requestId) != null) {
+                            endTrace(navigation.route, requestId);
+                            fail(navigation, error);
+                        }
+                    }
+                });
+        // Already at a frame boundary: no need to wait for the channel's own frame
+        channel.flush();
+    }
+
+    /**
+     * Called by ViewRouterPlugin, on any thread, once the page has painted a view
+     */
+    void onPainted(final int requestId, final boolean found) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Navigation navigation = inFlight.remove(requestId);
+                if (navigation == null) {
+                    return;
+                }
+                endTrace(navigation.route, requestId);
+                if (!found) {
+                    fail(navigation, new IllegalArgumentException("View not found: " + navigation.route.getFragmentId()));
+                    return;
+                }
+                long now = System.nanoTime();
+                long switchMs = (now - navigation.sentAt) / 1000000;
+                stats.get(navigation.route).record(switchMs);
+                LOG.d(TAG, () -> "🧭 " + navigation.route + " painted: switch " + switchMs + "ms, "
+                        + (now - navigation.requestedAt) / 1000000 + "ms since requested");
+                for (CompletableFuture<Route> future : navigation.futures) {
+                    future.complete(navigation.route);
+                }
+            }
+        });
+    }
+
+    /**
+     * Cancel every navigation not painted yet, e.g. when the WebView is scrubbed
+     */
+    void reset() {
+        CancellationException cancelled = new CancellationException("WebView was reset");
+        if (pending != null) {
+            fail(pending, cancelled);
+            pending = null;
+        }
+        for (Map.Entry<Integer, Navigation> entry : inFlight.entrySet()) {
+            endTrace(entry.getValue().route, entry.getKey());
+            fail(entry.getValue(), cancelled);
+        }
+        inFlight.clear();
+    }
+
+    /**
+     * The switch spans several messages, so it is traced as an async section
+     * ("ViewRouter:SETTINGS" etc., as measured by the benchmark module)
+     */
+    private static void beginTrace(Route route, int requestId) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection("ViewRouter:" + route, requestId);
+        }
+    }
+
+    private static void endTrace(Route route, int requestId) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection("ViewRouter:" + route, requestId);
+        }
+    }
+
+    private static void fail(Navigation navigation, Throwable error) {
+        for (CompletableFuture<Route> future : navigation.futures) {
+            future.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.cordovaperformance;
+
+import org.apache.cordova.CordovaAction;
+import org.apache.cordova.CordovaPlugin;
+
+/**
+ * Receives paint acknowledgements for native navigations.
+ * The page calls cordova.exec(null, null, 'ViewRouter', 'painted', [requestId, viewName, found])
+ * two animation frames after switching views.
+ */
+public class ViewRouterPlugin extends CordovaPlugin {
+    public static final String SERVICE = "ViewRouter";
+
+    private final ViewRouter router;
+
+    public ViewRouterPlugin(ViewRouter router) {
+        this.router = router;
+    }
+
+    @CordovaAction
+    void painted(int requestId, @CordovaAction.Optional String viewName, @CordovaAction.Optional boolean found) {
+        router.onPainted(requestId, found);
+    }
+}
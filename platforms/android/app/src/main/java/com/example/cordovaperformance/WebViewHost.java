@@ -0,0 +1,178 @@
+package com.example.cordovaperformance;
+
+import android.content.Context;
+import android.os.Debug;
+import android.view.ViewGroup;
+import androidx.appcompat.app.AppCompatActivity;
+import org.apache.cordova.LOG;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hosts several Cordova WebViews ("tabs") side by side, e.g. a hidden tab prefetching
+ * the next page next to the visible one. At most one tab is shown at a time.
+ *
+ * Each tab keeps its own PluginManager and NativeToJsMessageQueue, so plugin callbacks
+ * never cross tabs. What does not need to be per WebView is shared process-wide:
+ * StatelessPlugin instances (SharedPluginRegistry), the plugin thread pool
+ * (CordovaInterfaceImpl.getSharedThreadPool()) and CordovaResourceApi's I/O executor.
+ *
+ * Tabs are leased from and released to the given WebViewPool. All methods must be
+ * called on the main thread.
+ */
+public class WebViewHost {
+    private static final String TAG = "WebViewPerformance";
+
+    /**
+     * Memory of this process once a given number of tabs had loaded their page.
+     * The renderer runs in its own process and is not included.
+     */
+    public static class MemorySample {
+        public final int tabCount;
+        public final int totalPssKb;
+        public final int javaHeapKb;
+        public final int nativeHeapKb;
+
+        MemorySample(int tabCount, Debug.MemoryInfo info) {
+            this.tabCount = tabCount;
+            this.totalPssKb = info.getTotalPss();
+            // The summary stats are not guaranteed on every device; fall back to the PSS fields
+            this.javaHeapKb = parseStat(info.getMemoryStat("summary.java-heap"), info.dalvikPss);
+            this.nativeHeapKb = parseStat(info.getMemoryStat("summary.native-heap"), info.nativePss);
+        }
+
+        private static int parseStat(String stat, int fallback) {
+            if (stat == null) {
+                return fallback;
+            }
+            try {
+                return Integer.parseInt(stat.trim());
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return tabCount + " WebViews: " + totalPssKb + " kB PSS (java " + javaHeapKb
+                    + " kB, native " + nativeHeapKb + " kB)";
+        }
+    }
+
+    private final Context context;
+    private final WebViewPool pool;
+    private final Map<String, PooledWebView> tabs = new LinkedHashMap<>();
+    private final List<MemorySample> memorySamples = new ArrayList<>();
+    private String shownTab;
+
+    public WebViewHost(Context context, WebViewPool pool) {
+        this.context = context.getApplicationContext();
+        this.pool = pool;
+    }
+
+    /**
+     * Open a tab that loads the url in the background. Does nothing if the tab exists.
+     */
+    public PooledWebView openTab(String id, String url) {
+        PooledWebView tab = tabs.get(id);
+        if (tab != null) {
+            return tab;
+        }
+        final PooledWebView leased = pool.lease(context, url);
+        tabs.put(id, leased);
+        LOG.d(TAG, () -> "🗂️  Opened tab " + id + " (" + tabs.size() + " open)");
+        leased.getPipeline().whenStage(PreloadPipeline.Stage.PAGE_LOADED, new PreloadPipeline.StageListener() {
+            @Override
+            public void onStageReached(PreloadPipeline.Stage stage) {
+                if (tabs.containsValue(leased)) {
+                    sampleMemory();
+                }
+            }
+        });
+        return leased;
+    }
+
+    /**
+     * Show a tab in a container of the activity; the tab shown before is hidden.
+     * Hidden tabs keep their page but have their WebView paused.
+     */
+    public void showTab(String id, AppCompatActivity activity, ViewGroup container) {
+        PooledWebView tab = tabs.get(id);
+        if (tab == null) {
+            throw new IllegalArgumentException("No tab " + id);
+        }
+        if (shownTab != null && !shownTab.equals(id)) {
+            hide(tabs.get(shownTab));
+        }
+        tab.attach(activity, container);
+        tab.getSystemWebView().onResume();
+        shownTab = id;
+    }
+
+    /**
+     * Close a tab and give its WebView back to the pool
+     */
+    public void closeTab(String id) {
+        PooledWebView tab = tabs.remove(id);
+        if (tab == null) {
+            return;
+        }
+        if (id.equals(shownTab)) {
+            shownTab = null;
+        }
+        pool.release(tab);
+    }
+
+    /**
+     * Close every tab
+     */
+    public void closeAllTabs() {
+        for (String id : new ArrayList<>(tabs.keySet())) {
+            closeTab(id);
+        }
+    }
+
+    public PooledWebView getTab(String id) {
+        return tabs.get(id);
+    }
+
+    public String getShownTab() {
+        return shownTab;
+    }
+
+    public int getTabCount() {
+        return tabs.size();
+    }
+
+    /**
+     * One sample per page load, in the order they happened
+     */
+    public List<MemorySample> getMemorySamples() {
+        return Collections.unmodifiableList(memorySamples);
+    }
+
+    private void hide(PooledWebView tab) {
+        tab.detach();
+        if (tab.getSystemWebView() != null) {
+            tab.getSystemWebView().onPause();
+        }
+    }
+
+    private void sampleMemory() {
+        Debug.MemoryInfo info = new Debug.MemoryInfo();
+        Debug.getMemoryInfo(info);
+        MemorySample sample = new MemorySample(tabs.size(), info);
+        if (!memorySamples.isEmpty()) {
+            MemorySample first = memorySamples.get(0);
+            int perTab = sample.tabCount > first.tabCount
+                    ? (sample.totalPssKb - first.totalPssKb) / (sample.tabCount - first.tabCount) : 0;
+            LOG.d(TAG, () -> "📊 " + sample + ", ~" + perTab + " kB PSS per additional WebView");
+        } else {
+            LOG.d(TAG, () -> "📊 " + sample);
+        }
+        memorySamples.add(sample);
+    }
+}
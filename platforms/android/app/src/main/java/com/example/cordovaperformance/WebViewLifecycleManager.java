@@ -0,0 +1,125 @@
+package com.example.cordovaperformance;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import org.apache.cordova.LOG;
+
+/**
+ * Scales what the singleton WebView holds on to with memory pressure.
+ *
+ * Registered on the Application, so it sees every trim level and when the app goes to
+ * and comes back from the background. Each step includes the ones before it:
+ *   UI_HIDDEN       pause: Cordova pause event and JavaScript timers paused
+ *   RUNNING_LOW+    drop the WebView's in-memory caches (pool shrinking is per level)
+ *   BACKGROUND      pause and drop caches
+ *   MODERATE+       tear down to a snapshot of the page's view and app state
+ * The WebView is resumed, or restored from the snapshot, when the next activity starts,
+ * so it is there again by the time the activity attaches it in onResume().
+ */
+public class WebViewLifecycleManager implements ComponentCallbacks2, Application.ActivityLifecycleCallbacks {
+    private static final String TAG = "WebViewPerformance";
+
+    public enum State {
+        ACTIVE,
+        PAUSED,
+        TORN_DOWN
+    }
+
+    private final WebViewManager webViewManager;
+    private State state = State.ACTIVE;
+    private int startedActivities = 0;
+
+    public WebViewLifecycleManager(WebViewManager webViewManager) {
+        this.webViewManager = webViewManager;
+    }
+
+    public void register(Application application) {
+        application.registerComponentCallbacks(this);
+        application.registerActivityLifecycleCallbacks(this);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        LOG.d(TAG, () -> "🧹 onTrimMemory(" + level + ") in state " + state);
+        webViewManager.onTrimMemory(level);
+        if (state == State.TORN_DOWN) {
+            return;
+        }
+        boolean background = startedActivities == 0;
+
+        if (level >= TRIM_MEMORY_UI_HIDDEN && background) {
+            pause();
+        }
+        if (level >= TRIM_MEMORY_RUNNING_LOW && level != TRIM_MEMORY_UI_HIDDEN) {
+            webViewManager.dropCaches();
+        }
+        if (level >= TRIM_MEMORY_MODERATE && background && webViewManager.tearDownToSnapshot()) {
+            state = State.TORN_DOWN;
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+        startedActivities++;
+        if (startedActivities > 1) {
+            return;
+        }
+        // Back in the foreground
+        if (state == State.TORN_DOWN) {
+            webViewManager.restoreFromSnapshot();
+            // JS timers are process-wide; the replacement must not start with them paused
+            webViewManager.resumeWebView();
+        } else if (state == State.PAUSED) {
+            webViewManager.resumeWebView();
+        }
+        state = State.ACTIVE;
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+        startedActivities = Math.max(0, startedActivities - 1);
+    }
+
+    private void pause() {
+        if (state == State.ACTIVE) {
+            webViewManager.pauseWebView();
+            state = State.PAUSED;
+        }
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+    }
+}
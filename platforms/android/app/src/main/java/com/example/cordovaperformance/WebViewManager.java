@@ -1,34 +1,59 @@
 package com.example.cordovaperformance;
 
-import android.util.Log;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.view.ViewGroup;
-import android.webkit.WebSettings;
+import android.webkit.CookieManager;
+import android.webkit.WebStorage;
 import androidx.appcompat.app.AppCompatActivity;
+import org.apache.cordova.CordovaConfig;
+import org.apache.cordova.CordovaResourceApi;
 import org.apache.cordova.CordovaWebView;
-import org.apache.cordova.CordovaWebViewImpl;
-import org.apache.cordova.CordovaInterfaceImpl;
-import org.apache.cordova.CordovaPreferences;
-import org.apache.cordova.PluginEntry;
+import org.apache.cordova.LOG;
+import org.apache.cordova.SharedPluginRegistry;
+import org.apache.cordova.StartupTimeline;
 import org.apache.cordova.engine.SystemWebView;
-import org.apache.cordova.engine.SystemWebViewEngine;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  * Singleton WebViewManager for performance optimization
  * Manages a single WebView instance throughout the app lifecycle
- * Preloads content and uses fragment identifiers for navigation
+ * Preloads content from the Application in idle-time stages (see PreloadPipeline)
+ * and uses fragment identifiers for navigation.
+ * If the renderer dies, the WebView is replaced and its view and app state restored.
  */
 public class WebViewManager {
     private static final String TAG = "WebViewPerformance";
     private static WebViewManager instance;
-    private CordovaWebView cordovaWebView;
-    private SystemWebView systemWebView;
+    // More renderer deaths than this within the window and the state is no longer
+    // restored, in case it is what brings the renderer down
+    private static final int MAX_STATE_RESTORES = 2;
+    private static final long STATE_RESTORE_WINDOW_MS = 60000;
+    private PooledWebView current;
+    private final WebViewPool pool = new WebViewPool();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Context appContext;
+    private WebViewHost host;
     private boolean isPreloaded = false;
-    private String baseUrl = "file:///android_asset/www/index.html";
+    private String loadedUrl;
     
     // Performance tracking
     private long preloadStartTime = 0;
     private long preloadEndTime = 0;
+    private final ArrayDeque<Long> recentRecoveries = new ArrayDeque<>();
+    private int recoveryCount = 0;
+    private long lastRecoveryTime = -1;
+
+    // Set while the WebView is torn down to a snapshot (see tearDownToSnapshot)
+    private boolean tornDown = false;
+    private String snapshotView;
+    private String snapshotState;
+    private long lastRestoreTime = -1;
 
     private WebViewManager() {
         // Private constructor for singleton
@@ -42,148 +67,217 @@ public class WebViewManager {
     }
 
     /**
-     * Initialize and preload the WebView with default index.html
+     * Initialize and preload the WebView with the launch url from config.xml
      */
-    public void preloadWebView(AppCompatActivity activity) {
-        preloadWebView(activity, null);
+    public void preloadWebView(Context context) {
+        preloadWebView(context, null);
     }
 
     /**
-     * Initialize and preload the WebView with custom URL
-     * @param activity The activity context
-     * @param url Custom URL to load, if null uses default baseUrl
+     * Initialize and preload the WebView with custom URL.
+     * Only the application context is kept; activities are bound in attachWebView().
+     * @param context Any context, typically the Application
+     * @param url Custom URL to load, if null uses the config.xml launch url
      */
-    public void preloadWebView(AppCompatActivity activity, String url) {
-        if (isPreloaded && cordovaWebView != null) {
-            Log.d(TAG, "⚡ WebView already preloaded - reusing existing instance");
+    public void preloadWebView(Context context, String url) {
+        if (isPreloaded && current != null) {
+            LOG.d(TAG, "⚡ WebView already preloaded - reusing existing instance");
             return;
         }
 
         // Start timing
-        preloadStartTime = System.currentTimeMillis();
-        Log.d(TAG, "🚀 Starting WebView preload...");
+        preloadStartTime = SystemClock.elapsedRealtimeNanos();
+        preloadEndTime = 0;
+        StartupTimeline.getInstance().mark("preloadRequested");
 
         try {
             // Use custom URL if provided, otherwise use default
-            String urlToLoad = (url != null && !url.isEmpty()) ? url : baseUrl;
-            Log.d(TAG, "📄 URL to load: " + urlToLoad);
-            
-            long webViewCreateStart = System.currentTimeMillis();
-            // Create SystemWebView with Activity context
-            systemWebView = new SystemWebView(activity);
-            long webViewCreateEnd = System.currentTimeMillis();
-            Log.d(TAG, "⏱️  WebView creation time: " + (webViewCreateEnd - webViewCreateStart) + "ms");
-            
-            long settingsStart = System.currentTimeMillis();
-            // Configure WebView settings for performance
-            WebSettings settings = systemWebView.getSettings();
-            settings.setJavaScriptEnabled(true);
-            settings.setDomStorageEnabled(true);
-            settings.setDatabaseEnabled(true);
-            settings.setCacheMode(WebSettings.LOAD_DEFAULT);
-            settings.setAllowFileAccess(true);
-            settings.setAllowContentAccess(true);
-            settings.setAllowFileAccessFromFileURLs(true);
-            settings.setAllowUniversalAccessFromFileURLs(true);
-            long settingsEnd = System.currentTimeMillis();
-            Log.d(TAG, "⏱️  Settings configuration time: " + (settingsEnd - settingsStart) + "ms");
-            
-            long cordovaInitStart = System.currentTimeMillis();
-            // Create Cordova WebView with Activity
-            SystemWebViewEngine webViewEngine = new SystemWebViewEngine(systemWebView);
-            CordovaInterfaceImpl cordovaInterface = new CordovaInterfaceImpl(activity);
-            cordovaWebView = new CordovaWebViewImpl(webViewEngine);
-            
-            // Initialize with required parameters
-            CordovaPreferences preferences = new CordovaPreferences();
-            ArrayList<PluginEntry> pluginEntries = new ArrayList<>();
-            cordovaWebView.init(cordovaInterface, pluginEntries, preferences);
-            long cordovaInitEnd = System.currentTimeMillis();
-            Log.d(TAG, "⏱️  Cordova initialization time: " + (cordovaInitEnd - cordovaInitStart) + "ms");
-
-            long loadUrlStart = System.currentTimeMillis();
-            // Load the URL
-            cordovaWebView.loadUrlIntoView(urlToLoad, false);
-            long loadUrlEnd = System.currentTimeMillis();
-            Log.d(TAG, "⏱️  LoadUrl call time: " + (loadUrlEnd - loadUrlStart) + "ms");
-            
+            String urlToLoad = (url != null && !url.isEmpty()) ? url
+                    : CordovaConfig.get(context.getApplicationContext()).getLaunchUrl();
+
+            // Take a warm instance from the pool, or create one; a new one builds
+            // itself in stages while the main thread is idle
+            appContext = context.getApplicationContext();
+            current = pool.lease(appContext, urlToLoad);
+            loadedUrl = urlToLoad;
             isPreloaded = true;
-            preloadEndTime = System.currentTimeMillis();
-            
-            long totalTime = preloadEndTime - preloadStartTime;
-            Log.d(TAG, "✅ WebView preload completed!");
-            Log.d(TAG, "📊 Total preload time: " + totalTime + "ms");
-            Log.d(TAG, "========================================");
-            
+
+            final PooledWebView leased = current;
+            leased.getPipeline().whenStage(PreloadPipeline.Stage.PAGE_LOADED, new PreloadPipeline.StageListener() {
+                @Override
+                public void onStageReached(PreloadPipeline.Stage stage) {
+                    if (leased != current || preloadEndTime > 0) {
+                        return;
+                    }
+                    preloadEndTime = SystemClock.elapsedRealtimeNanos();
+                }
+            });
         } catch (Exception e) {
-            Log.e(TAG, "❌ Error during WebView preload", e);
+            LOG.e(TAG, "❌ Error during WebView preload", e);
             e.printStackTrace();
         }
     }
 
     /**
-     * Get the total preload time in milliseconds
+     * Get the time from preloadWebView() to the page having loaded, in milliseconds
      */
     public long getPreloadTime() {
         if (preloadStartTime > 0 && preloadEndTime > 0) {
-            return preloadEndTime - preloadStartTime;
+            return (preloadEndTime - preloadStartTime) / 1000000;
         }
         return 0;
     }
 
     /**
-     * Get the preloaded WebView instance
+     * Get the preloaded WebView instance, or null before ENGINE_CREATED
      */
     public CordovaWebView getCordovaWebView() {
-        return cordovaWebView;
+        return current != null ? current.getCordovaWebView() : null;
     }
 
     /**
-     * Get the system WebView for adding to layouts
+     * Get the system WebView for adding to layouts, or null before ENGINE_CREATED
      */
     public SystemWebView getSystemWebView() {
-        return systemWebView;
+        return current != null ? current.getSystemWebView() : null;
     }
 
     /**
      * Get WebView (for backward compatibility)
      */
     public SystemWebView getWebView() {
-        return systemWebView;
+        return getSystemWebView();
+    }
+
+    /**
+     * Navigate to a different view. Queued until the page is ready; the future
+     * completes once the view has painted.
+     */
+    public CompletableFuture<ViewRouter.Route> navigateTo(ViewRouter.Route route) {
+        if (current == null) {
+            CompletableFuture<ViewRouter.Route> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("No WebView preloaded"));
+            return failed;
+        }
+        return current.getRouter().navigate(route);
     }
 
     /**
      * Navigate to a different view using fragment identifier
      */
-    public void navigateToView(String fragmentId) {
-        if (systemWebView != null) {
-            String javascript = "window.location.hash = '" + fragmentId + "';";
-            systemWebView.evaluateJavascript(javascript, null);
+    public CompletableFuture<ViewRouter.Route> navigateToView(String fragmentId) {
+        ViewRouter.Route route = ViewRouter.Route.fromFragmentId(fragmentId);
+        if (route == null) {
+            CompletableFuture<ViewRouter.Route> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalArgumentException("Unknown view: " + fragmentId));
+            return failed;
         }
+        return navigateTo(route);
     }
 
     /**
-     * Navigate using direct JavaScript call
+     * Get the router of the current WebView (for per-route latency), or null
+     */
+    public ViewRouter getRouter() {
+        return current != null ? current.getRouter() : null;
+    }
+
+    /**
+     * Invoke a command the page registered in window.nativeCommands.handlers.
+     * Prefer this over executeJavaScript(): nothing is compiled per call and calls are batched per frame.
+     */
+    public CompletableFuture<Void> invokeCommand(String command, Object... args) {
+        if (current == null) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("No WebView preloaded"));
+            return failed;
+        }
+        return current.getCommandChannel().invoke(command, args);
+    }
+
+    /**
+     * Navigate using direct JavaScript call (compiled on every call; see invokeCommand())
      */
     public void executeJavaScript(String script) {
+        SystemWebView systemWebView = getSystemWebView();
         if (systemWebView != null) {
             systemWebView.evaluateJavascript(script, null);
         }
     }
 
     /**
-     * Check if WebView is preloaded
+     * Check if a WebView has been leased for preloading.
+     * This says nothing about how far it got; see getCurrentStage() and whenStage().
      */
     public boolean isPreloaded() {
         return isPreloaded;
     }
 
     /**
-     * Detach WebView from current parent
+     * The latest preload stage the current WebView has reached, or null
+     */
+    public PreloadPipeline.Stage getCurrentStage() {
+        return current != null ? current.getPipeline().getCurrentStage() : null;
+    }
+
+    /**
+     * Check if the current WebView has reached the given preload stage
+     */
+    public boolean hasReached(PreloadPipeline.Stage stage) {
+        return current != null && current.getPipeline().hasReached(stage);
+    }
+
+    /**
+     * Call the listener on the main thread once the current WebView reaches the stage.
+     * Does nothing if no WebView is preloaded.
+     */
+    public void whenStage(PreloadPipeline.Stage stage, PreloadPipeline.StageListener listener) {
+        if (current != null) {
+            current.getPipeline().whenStage(stage, listener);
+        }
+    }
+
+    /**
+     * Block a background thread until the current WebView reaches the stage
+     * @return true if the stage was reached before the timeout
+     */
+    public boolean awaitStage(PreloadPipeline.Stage stage, long timeout, TimeUnit unit) throws InterruptedException {
+        PooledWebView pooled = current;
+        return pooled != null && pooled.getPipeline().awaitStage(stage, timeout, unit);
+    }
+
+    /**
+     * Show the WebView in a container of the given activity.
+     * The activity becomes the WebView's context and the Cordova activity until detached.
+     * Preload stages that have not run yet are run now.
+     */
+    public void attachWebView(AppCompatActivity activity, ViewGroup container) {
+        if (current == null) {
+            return;
+        }
+        current.attach(activity, container);
+
+        // Refill the pool once the activity has drawn its first frame
+        pool.resetSizeLimit();
+        pool.scheduleWarmUp(activity, loadedUrl);
+    }
+
+    /**
+     * Detach WebView from current parent and release the activity
      */
     public void detachWebView() {
-        if (systemWebView != null && systemWebView.getParent() != null) {
-            ((ViewGroup) systemWebView.getParent()).removeView(systemWebView);
+        if (current != null) {
+            current.detach();
+        }
+    }
+
+    /**
+     * Detach WebView only if it is currently attached to the given activity,
+     * so one activity's lifecycle cannot pull the WebView out of another.
+     */
+    public void detachWebView(AppCompatActivity owner) {
+        if (current != null && current.getBoundActivity() == owner) {
+            current.detach();
         }
     }
 
@@ -191,29 +285,267 @@ public class WebViewManager {
      * Reset WebView to home view
      */
     public void resetToHome() {
-        navigateToView("home");
+        navigateTo(ViewRouter.Route.HOME);
     }
 
     /**
-     * Clear WebView on logout
+     * Get the host for WebViews running next to the main one (e.g. a prefetch tab).
+     * Its tabs come from the same pool.
+     */
+    public WebViewHost getHost(Context context) {
+        if (host == null) {
+            host = new WebViewHost(context, pool);
+        }
+        return host;
+    }
+
+    /**
+     * Get the pool of warm WebViews (for sizing and metrics)
+     */
+    public WebViewPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Called by SessionStatePlugin once a WebView's renderer has died (crashed or killed
+     * for memory). Idle pooled WebViews are dropped. The current one is destroyed and replaced
+     * from the pool or a fresh preload, attached where the old one was, and given back the
+     * page's saved app state and view.
+     */
+    void onRendererGone(PooledWebView gone, boolean crashed) {
+        LOG.w(TAG, "💥 WebView renderer " + (crashed ? "crashed" : "was killed"));
+        if (gone != current) {
+            pool.discard(gone);
+            return;
+        }
+        final long goneAt = SystemClock.elapsedRealtimeNanos();
+        final AppCompatActivity activity = gone.getBoundActivity();
+        SystemWebView goneView = gone.getSystemWebView();
+        final ViewGroup container = goneView != null ? (ViewGroup) goneView.getParent() : null;
+        final String view = gone.getSavedView();
+        final String state = gone.getSavedState();
+
+        current = null;
+        gone.destroy();
+
+        // Pooled WebViews sharing the renderer get their own callback; let those
+        // come in first so a dead one is not leased as the replacement
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                recover(goneAt, activity, container, view, state);
+            }
+        });
+    }
+
+    private void recover(final long goneAt, AppCompatActivity activity, ViewGroup container,
+            String view, String state) {
+        if (!isPreloaded) {
+            // Logged out in the meantime
+            return;
+        }
+        recoveryCount++;
+        boolean restoreState = allowStateRestore(goneAt);
+        if (!restoreState) {
+            LOG.w(TAG, "🚑 Renderer keeps dying - replacing the WebView without its state");
+        }
+        replaceCurrent(activity, container, restoreState ? view : null, restoreState ? state : null).whenComplete(
+                new BiConsumer<ViewRouter.Route, Throwable>() {
+                    @Override
+                    public void accept(ViewRouter.Route shown, Throwable error) {
+                        if (error != null) {
+                            LOG.e(TAG, "❌ WebView recovery failed", error);
+                            return;
+                        }
+                        lastRecoveryTime = (SystemClock.elapsedRealtimeNanos() - goneAt) / 1000000;
+                        LOG.d(TAG, () -> "🚑 WebView recovered to " + shown + " in " + lastRecoveryTime + "ms");
+                    }
+                });
+    }
+
+    /**
+     * Make a new current WebView (from the pool or a fresh preload), attach it where given,
+     * and hand it the saved app state and view
+     * @return the navigation to the restored view, HOME if there is none
+     */
+    private CompletableFuture<ViewRouter.Route> replaceCurrent(AppCompatActivity activity, ViewGroup container,
+            String view, String state) {
+        if (current == null) {
+            current = pool.lease(appContext, loadedUrl);
+        }
+        if (activity != null && container != null && !activity.isDestroyed()) {
+            current.attach(activity, container);
+        }
+        if (state != null) {
+            // Queued in the command channel ahead of the navigation below
+            current.getCommandChannel().invoke("restoreState", state);
+        }
+        ViewRouter.Route route = ViewRouter.Route.fromFragmentId(view);
+        return current.getRouter().navigate(route != null ? route : ViewRouter.Route.HOME);
+    }
+
+    private boolean allowStateRestore(long goneAt) {
+        long windowStart = goneAt - TimeUnit.MILLISECONDS.toNanos(STATE_RESTORE_WINDOW_MS);
+        while (!recentRecoveries.isEmpty() && recentRecoveries.peek() < windowStart) {
+            recentRecoveries.poll();
+        }
+        recentRecoveries.add(goneAt);
+        return recentRecoveries.size() <= MAX_STATE_RESTORES;
+    }
+
+    /**
+     * How many times the WebView was replaced after its renderer died
+     */
+    public int getRecoveryCount() {
+        return recoveryCount;
+    }
+
+    /**
+     * Time from the renderer's death to the restored view having painted, in milliseconds,
+     * for the latest recovery; -1 if none completed
+     */
+    public long getLastRecoveryTime() {
+        return lastRecoveryTime;
+    }
+
+    /**
+     * Fire the Cordova pause event and pause JavaScript timers (of every WebView in the app),
+     * e.g. while the app is in the background
+     */
+    public void pauseWebView() {
+        if (current != null) {
+            current.pause();
+        }
+    }
+
+    /**
+     * Undo pauseWebView()
+     */
+    public void resumeWebView() {
+        if (current != null) {
+            current.resume();
+        }
+    }
+
+    /**
+     * Drop the in-memory caches of the current WebView
+     */
+    public void dropCaches() {
+        if (current != null) {
+            current.dropCaches();
+        }
+    }
+
+    /**
+     * Destroy the current WebView (and the pool), keeping only the page's view and app state,
+     * to give its memory back while the app is in the background. restoreFromSnapshot() brings
+     * it back.
+     * @return false if there was nothing to tear down, or the WebView is shown by an activity
+     */
+    public boolean tearDownToSnapshot() {
+        if (current == null || current.getBoundActivity() != null) {
+            return false;
+        }
+        snapshotView = current.getSavedView();
+        snapshotState = current.getSavedState();
+        tornDown = true;
+        // pauseTimers() is process-wide: undo it before the paused WebView goes
+        current.resume();
+        current.destroy();
+        current = null;
+        pool.clear();
+        LOG.d(TAG, () -> "🧊 WebView torn down to snapshot (view " + snapshotView + ")");
+        return true;
+    }
+
+    /**
+     * Check if the WebView is torn down to a snapshot
+     */
+    public boolean isTornDown() {
+        return tornDown;
+    }
+
+    /**
+     * Build a new WebView from the snapshot left by tearDownToSnapshot(). Its construction
+     * runs right away since an activity is about to show it; the app state and view are
+     * restored once the page is ready.
+     */
+    public void restoreFromSnapshot() {
+        if (!tornDown) {
+            return;
+        }
+        tornDown = false;
+        final long startedAt = SystemClock.elapsedRealtimeNanos();
+        CompletableFuture<ViewRouter.Route> restored = replaceCurrent(null, null, snapshotView, snapshotState);
+        current.ensureCreated();
+        final long createdAt = SystemClock.elapsedRealtimeNanos();
+        snapshotView = null;
+        snapshotState = null;
+        restored.whenComplete(new BiConsumer<ViewRouter.Route, Throwable>() {
+            @Override
+            public void accept(ViewRouter.Route shown, Throwable error) {
+                if (error != null) {
+                    LOG.e(TAG, "❌ Restore from snapshot failed", error);
+                    return;
+                }
+                lastRestoreTime = (SystemClock.elapsedRealtimeNanos() - startedAt) / 1000000;
+                LOG.d(TAG, () -> "🔥 WebView restored from snapshot to " + shown + " in " + lastRestoreTime
+                        + "ms (" + (createdAt - startedAt) / 1000000 + "ms blocking)");
+            }
+        });
+    }
+
+    /**
+     * Time from restoreFromSnapshot() to the restored view having painted, in milliseconds,
+     * for the latest restore; -1 if none completed
+     */
+    public long getLastRestoreTime() {
+        return lastRestoreTime;
+    }
+
+    /**
+     * Forward memory pressure to the pool and to Cordova's copy buffers
+     */
+    public void onTrimMemory(int level) {
+        pool.onTrimMemory(level);
+        CordovaResourceApi.onTrimMemory(level);
+    }
+
+    /**
+     * Clear WebView on logout.
+     * The user's web storage, cookies and HTTP cache are deleted, then the instance is
+     * scrubbed (its page reloaded) and returned to the pool so the next login is warm.
      */
     public void clearWebView() {
-        if (systemWebView != null) {
-            systemWebView.clearCache(true);
-            systemWebView.clearHistory();
-            systemWebView.clearFormData();
-            systemWebView.loadUrl("about:blank");
+        WebStorage.getInstance().deleteAllData();
+        CookieManager cookieManager = CookieManager.getInstance();
+        cookieManager.removeAllCookies(null);
+        cookieManager.flush();
+        if (current != null && current.getSystemWebView() != null) {
+            // Clears the disk cache of every WebView, not just this one
+            current.getSystemWebView().clearCache(true);
         }
+        pool.release(current);
         isPreloaded = false;
-        cordovaWebView = null;
-        systemWebView = null;
-        instance = null;
+        tornDown = false;
+        current = null;
     }
 
     /**
-     * Destroy the WebView instance (for logout or app kill)
+     * Destroy the WebView instance and the pool (for app kill)
      */
     public void destroy() {
-        clearWebView();
+        if (current != null) {
+            current.destroy();
+        }
+        if (host != null) {
+            host.closeAllTabs();
+        }
+        pool.clear();
+        SharedPluginRegistry.clear();
+        isPreloaded = false;
+        tornDown = false;
+        current = null;
+        instance = null;
     }
 }
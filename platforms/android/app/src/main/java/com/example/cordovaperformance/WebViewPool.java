@@ -0,0 +1,175 @@
+package com.example.cordovaperformance;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import androidx.appcompat.app.AppCompatActivity;
+import org.apache.cordova.LOG;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Pool of pre-initialized WebViews.
+ * Warm instances are started while the main thread is idle after the first frame
+ * (each then builds itself in stages, see PreloadPipeline),
+ * leased out by WebViewManager and scrubbed (not destroyed) when they come back.
+ */
+public class WebViewPool {
+    private static final String TAG = "WebViewPerformance";
+    private static final int DEFAULT_MAX_SIZE = 1;
+
+    private final ArrayDeque<PooledWebView> idle = new ArrayDeque<>();
+    private int maxSize = DEFAULT_MAX_SIZE;
+    // Capped by onTrimMemory; never more than maxSize
+    private int sizeLimit = DEFAULT_MAX_SIZE;
+    private boolean warmUpScheduled = false;
+
+    // Metrics
+    private int hitCount = 0;
+    private int coldCreationCount = 0;
+
+    /**
+     * Set how many idle WebViews the pool may keep
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        this.sizeLimit = maxSize;
+        trimTo(sizeLimit);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Take a WebView for the given url, creating one if the pool has none
+     */
+    public PooledWebView lease(Context context, String url) {
+        Iterator<PooledWebView> it = idle.iterator();
+        while (it.hasNext()) {
+            PooledWebView pooled = it.next();
+            if (pooled.isRendererGone()) {
+                // Shared the renderer of a WebView that died
+                it.remove();
+                pooled.destroy();
+            } else if (pooled.getUrl().equals(url)) {
+                it.remove();
+                hitCount++;
+                LOG.d(TAG, () -> "♻️  Pool hit (" + hitCount + " hits, " + coldCreationCount + " cold)");
+                return pooled;
+            }
+        }
+        coldCreationCount++;
+        LOG.d(TAG, () -> "🧊 Pool miss - cold creation (" + hitCount + " hits, " + coldCreationCount + " cold)");
+        return PooledWebView.create(context, url);
+    }
+
+    /**
+     * Give a WebView back. It is scrubbed and kept if there is room, destroyed otherwise.
+     */
+    public void release(PooledWebView pooled) {
+        if (pooled == null) {
+            return;
+        }
+        if (idle.size() < sizeLimit) {
+            pooled.scrub();
+            idle.add(pooled);
+            LOG.d(TAG, () -> "♻️  WebView returned to pool (" + idle.size() + "/" + sizeLimit + ")");
+        } else {
+            pooled.destroy();
+        }
+    }
+
+    /**
+     * Drop an idle WebView whose renderer has died
+     */
+    void discard(PooledWebView pooled) {
+        if (idle.remove(pooled)) {
+            pooled.destroy();
+            LOG.d(TAG, () -> "🗑️  Dropped pooled WebView with a dead renderer (" + idle.size() + "/" + sizeLimit + ")");
+        }
+    }
+
+    /**
+     * Fill the pool up to its limit, one WebView per main-thread idle period,
+     * starting after the activity's first frame.
+     */
+    public void scheduleWarmUp(final AppCompatActivity activity, final String url) {
+        if (warmUpScheduled || idle.size() >= sizeLimit) {
+            return;
+        }
+        warmUpScheduled = true;
+        // Posting to the decor view runs after the first traversal (i.e. the first frame)
+        activity.getWindow().getDecorView().post(new Runnable() {
+            @Override
+            public void run() {
+                Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                    @Override
+                    public boolean queueIdle() {
+                        if (activity.isFinishing() || activity.isDestroyed() || idle.size() >= sizeLimit) {
+                            warmUpScheduled = false;
+                            return false;
+                        }
+                        // The instance stages its own construction over the following idle periods
+                        idle.add(PooledWebView.create(activity.getApplicationContext(), url));
+                        LOG.d(TAG, () -> "🔥 Warming pooled WebView (" + idle.size() + "/" + sizeLimit + ")");
+                        boolean more = idle.size() < sizeLimit;
+                        warmUpScheduled = more;
+                        return more;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Shrink the pool according to the memory trim level
+     */
+    public void onTrimMemory(int level) {
+        if (level == ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            // UI hidden: nothing to give back yet
+            return;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            // Running low, or backgrounded: keep nothing idle
+            sizeLimit = 0;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            sizeLimit = Math.min(sizeLimit, 1);
+        }
+        LOG.d(TAG, () -> "🧹 onTrimMemory(" + level + "): pool limit " + sizeLimit);
+        trimTo(sizeLimit);
+    }
+
+    /**
+     * Restore the configured size after memory pressure has passed
+     */
+    public void resetSizeLimit() {
+        sizeLimit = maxSize;
+    }
+
+    private void trimTo(int limit) {
+        while (idle.size() > limit) {
+            idle.poll().destroy();
+        }
+    }
+
+    /**
+     * Destroy every idle WebView
+     */
+    public void clear() {
+        trimTo(0);
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getColdCreationCount() {
+        return coldCreationCount;
+    }
+}
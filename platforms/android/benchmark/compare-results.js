@@ -0,0 +1,67 @@
+#!/usr/bin/env node
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+
+// Compares the medians of two Macrobenchmark (or Microbenchmark) JSON results:
+//   node benchmark/compare-results.js baseline.json candidate.json [--threshold=5]
+// Exits with 1 if any metric got slower by more than the threshold (percent).
+
+const fs = require('fs');
+
+function load (file) {
+    const results = {};
+    for (const bench of JSON.parse(fs.readFileSync(file, 'utf8')).benchmarks) {
+        const name = bench.className.split('.').pop() + '.' + bench.name;
+        for (const metric of Object.keys(bench.metrics)) {
+            results[name + ' ' + metric] = bench.metrics[metric].median;
+        }
+    }
+    return results;
+}
+
+const args = process.argv.slice(2).filter(arg => !arg.startsWith('--'));
+const thresholdArg = process.argv.find(arg => arg.startsWith('--threshold='));
+const threshold = thresholdArg ? Number(thresholdArg.split('=')[1]) : 5;
+
+if (args.length !== 2) {
+    console.error('Usage: compare-results.js <baseline.json> <candidate.json> [--threshold=percent]');
+    process.exit(2);
+}
+
+const baseline = load(args[0]);
+const candidate = load(args[1]);
+let regressions = 0;
+
+for (const key of Object.keys(candidate).sort()) {
+    if (!(key in baseline)) {
+        console.log(`  new  ${key}: ${candidate[key].toFixed(1)}`);
+        continue;
+    }
+    const change = baseline[key] ? (candidate[key] - baseline[key]) / baseline[key] * 100 : 0;
+    const regressed = change > threshold;
+    if (regressed) {
+        regressions++;
+    }
+    console.log(`${regressed ? ' SLOW' : '     '} ${key}: ${baseline[key].toFixed(1)} -> ${candidate[key].toFixed(1)} (${change >= 0 ? '+' : ''}${change.toFixed(1)}%)`);
+}
+
+if (regressions) {
+    console.log(`\n${regressions} metric(s) regressed by more than ${threshold}%`);
+    process.exit(1);
+}
@@ -0,0 +1,56 @@
+package com.example.cordovaperformance.benchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.uiautomator.By;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Collects the ART baseline and startup profiles of the app by driving
+ * login -> main -> settings -> profile. Only rules for the app and CordovaLib are kept;
+ * the AndroidX libraries ship their own profiles.
+ *
+ * Skipped by the regular benchmark run; see benchmark/build.gradle for how to run it
+ * and copy the result into the source tree.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                Benchmarks.PACKAGE_NAME,
+                15,
+                3,
+                "cordovaperformance",
+                true,
+                false,
+                (String rule) -> rule.contains("Lcom/example/cordovaperformance/")
+                        || rule.contains("Lorg/apache/cordova/"),
+                (MacrobenchmarkScope scope) -> {
+                    scope.killProcess();
+                    // Startup: the preloaded page shown in LoginActivity
+                    scope.startActivityAndWait();
+                    Benchmarks.waitForText(scope.getDevice(), Benchmarks.HOME_VIEW_TEXT);
+
+                    // MainActivity reusing the WebView, navigated to settings
+                    Benchmarks.click(scope.getDevice(), "btnLogin");
+                    Benchmarks.waitForText(scope.getDevice(), Benchmarks.SETTINGS_VIEW_TEXT);
+
+                    // In-page switches back home and to the profile view
+                    scope.getDevice().findObject(By.text("Close")).click();
+                    Benchmarks.waitForText(scope.getDevice(), Benchmarks.HOME_VIEW_TEXT);
+                    scope.getDevice().findObject(By.text("Go to Profile")).click();
+                    Benchmarks.waitForText(scope.getDevice(), Benchmarks.PROFILE_VIEW_TEXT);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.cordovaperformance.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.Until;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shared settings and UI helpers for the benchmarks
+ */
+final class Benchmarks {
+    static final String PACKAGE_NAME = "com.example.cordovaperformance";
+    static final int ITERATIONS = 10;
+    static final long TIMEOUT_MS = 10000;
+
+    // Text that is only exposed once the respective view is shown in the page
+    static final String HOME_VIEW_TEXT = "Main home screen with navigation";
+    static final String SETTINGS_VIEW_TEXT = "Configure your application settings here";
+    static final String PROFILE_VIEW_TEXT = "User profile information";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * No AOT compilation, compilation from the baseline profile (when the app ships one),
+     * and full AOT compilation
+     */
+    static List<CompilationMode> compilationModes() {
+        return Arrays.asList(
+                new CompilationMode.None(),
+                new CompilationMode.Partial(),
+                new CompilationMode.Full());
+    }
+
+    /**
+     * Wait until the page shows the given text
+     */
+    static void waitForText(UiDevice device, String text) {
+        if (!device.wait(Until.hasObject(By.textContains(text)), TIMEOUT_MS)) {
+            throw new AssertionError("Timed out waiting for \"" + text + "\"");
+        }
+    }
+
+    static void click(UiDevice device, String resourceId) {
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, resourceId)), TIMEOUT_MS);
+        device.findObject(By.res(PACKAGE_NAME, resourceId)).click();
+    }
+}
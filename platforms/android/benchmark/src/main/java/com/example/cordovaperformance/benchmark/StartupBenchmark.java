@@ -0,0 +1,66 @@
+package com.example.cordovaperformance.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Time to first frame of LoginActivity, the launcher activity.
+ * Cold starts include the Application preloading the WebView; warm starts reuse the process.
+ */
+@LargeTest
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+    private final StartupMode startupMode;
+
+    public StartupBenchmark(CompilationMode compilationMode, StartupMode startupMode) {
+        this.compilationMode = compilationMode;
+        this.startupMode = startupMode;
+    }
+
+    @Parameterized.Parameters(name = "compilation={0},startup={1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (CompilationMode compilationMode : Benchmarks.compilationModes()) {
+            parameters.add(new Object[] { compilationMode, StartupMode.COLD });
+            parameters.add(new Object[] { compilationMode, StartupMode.WARM });
+        }
+        return parameters;
+    }
+
+    @Test
+    public void loginTimeToFirstFrame() {
+        benchmarkRule.measureRepeated(
+                Benchmarks.PACKAGE_NAME,
+                Arrays.asList(
+                        new StartupTimingMetric(),
+                        new TraceSectionMetric("Cordova:LoginActivity.onCreate")),
+                compilationMode,
+                startupMode,
+                Benchmarks.ITERATIONS,
+                (MacrobenchmarkScope scope) -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                (MacrobenchmarkScope scope) -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+}
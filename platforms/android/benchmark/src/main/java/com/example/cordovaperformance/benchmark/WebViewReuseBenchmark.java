@@ -0,0 +1,102 @@
+package com.example.cordovaperformance.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+import androidx.test.uiautomator.By;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * The paths that reuse the preloaded WebView: LoginActivity -> MainActivity, the native
+ * navigation MainActivity starts with, and view switches inside the page.
+ * Each iteration starts from a fresh process showing LoginActivity.
+ */
+@LargeTest
+@RunWith(Parameterized.class)
+public class WebViewReuseBenchmark {
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public WebViewReuseBenchmark(CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Parameterized.Parameters(name = "compilation={0}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (CompilationMode compilationMode : Benchmarks.compilationModes()) {
+            parameters.add(new Object[] { compilationMode });
+        }
+        return parameters;
+    }
+
+    /**
+     * Login -> MainActivity attaching the preloaded WebView, then the native
+     * navigation to the settings view until it has painted
+     */
+    @Test
+    public void mainActivityReuse() {
+        benchmarkRule.measureRepeated(
+                Benchmarks.PACKAGE_NAME,
+                Arrays.asList(
+                        new TraceSectionMetric("Cordova:MainActivity.onCreate"),
+                        new TraceSectionMetric("Cordova:MainActivity.attachWebView"),
+                        new TraceSectionMetric("ViewRouter:SETTINGS"),
+                        new FrameTimingMetric()),
+                compilationMode,
+                null,
+                Benchmarks.ITERATIONS,
+                (MacrobenchmarkScope scope) -> {
+                    startOnLogin(scope);
+                    return Unit.INSTANCE;
+                },
+                (MacrobenchmarkScope scope) -> {
+                    Benchmarks.click(scope.getDevice(), "btnLogin");
+                    Benchmarks.waitForText(scope.getDevice(), Benchmarks.SETTINGS_VIEW_TEXT);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    /**
+     * Switching views inside the already loaded page (no reload)
+     */
+    @Test
+    public void inPageViewSwitch() {
+        benchmarkRule.measureRepeated(
+                Benchmarks.PACKAGE_NAME,
+                Arrays.asList(new FrameTimingMetric()),
+                compilationMode,
+                null,
+                Benchmarks.ITERATIONS,
+                (MacrobenchmarkScope scope) -> {
+                    startOnLogin(scope);
+                    return Unit.INSTANCE;
+                },
+                (MacrobenchmarkScope scope) -> {
+                    scope.getDevice().findObject(By.text("Go to Profile")).click();
+                    Benchmarks.waitForText(scope.getDevice(), Benchmarks.PROFILE_VIEW_TEXT);
+                    scope.getDevice().findObject(By.text("Close")).click();
+                    Benchmarks.waitForText(scope.getDevice(), Benchmarks.HOME_VIEW_TEXT);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private static void startOnLogin(MacrobenchmarkScope scope) {
+        scope.killProcess();
+        scope.startActivityAndWait();
+        // The preloaded page is shown in LoginActivity once it is ready
+        Benchmarks.waitForText(scope.getDevice(), Benchmarks.HOME_VIEW_TEXT);
+    }
+}
@@ -0,0 +1,328 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a <Plugin>_ActionDispatcher for every class with CordovaAction methods:
+ * a switch on the action name (a hash lookup once compiled) that parses the arguments
+ * only for actions that take some, binds them to the parameters by type and calls the
+ * method. See org.apache.cordova.CordovaAction for the supported signatures; anything
+ * else is a compile error on the method.
+ */
+@SupportedAnnotationTypes(ActionDispatchProcessor.CORDOVA_ACTION)
+public class ActionDispatchProcessor extends AbstractProcessor {
+    static final String CORDOVA_ACTION = "org.apache.cordova.CordovaAction";
+
+    private static final String OPTIONAL = "org.apache.cordova.CordovaAction.Optional";
+    private static final String CORDOVA_PLUGIN = "org.apache.cordova.CordovaPlugin";
+    private static final String CORDOVA_ARGS = "org.apache.cordova.CordovaArgs";
+    private static final String CALLBACK_CONTEXT = "org.apache.cordova.CallbackContext";
+    private static final String PLUGIN_RESULT = "org.apache.cordova.PluginResult";
+    private static final String JSON_EXCEPTION = "org.json.JSONException";
+    private static final String SUFFIX = "_ActionDispatcher";
+
+    // Argument type: { required getter, optional getter }; null-able ones check isNull first
+    private static final Map<String, String[]> GETTERS = new LinkedHashMap<String, String[]>();
+    static {
+        GETTERS.put("java.lang.String", new String[] { "getString", null });
+        GETTERS.put("int", new String[] { "getInt", "optInt" });
+        GETTERS.put("long", new String[] { "getLong", "optLong" });
+        GETTERS.put("double", new String[] { "getDouble", "optDouble" });
+        GETTERS.put("boolean", new String[] { "getBoolean", "optBoolean" });
+        GETTERS.put("org.json.JSONObject", new String[] { "getJSONObject", "optJSONObject" });
+        GETTERS.put("org.json.JSONArray", new String[] { "getJSONArray", "optJSONArray" });
+        GETTERS.put("byte[]", new String[] { "getArrayBuffer", null });
+    }
+
+    // Return types with a PluginResult(Status, value) constructor
+    private static final String[] RESULT_TYPES = {
+        "void", "java.lang.String", "int", "boolean", "org.json.JSONObject", "org.json.JSONArray", "byte[]"
+    };
+
+    private static class Action {
+        final String name;
+        final ExecutableElement method;
+
+        Action(String name, ExecutableElement method) {
+            this.name = name;
+            this.method = method;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(CORDOVA_ACTION);
+        if (annotation == null) {
+            return false;
+        }
+        Map<TypeElement, List<Action>> byPlugin = new LinkedHashMap<TypeElement, List<Action>>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            ExecutableElement method = (ExecutableElement) element;
+            TypeElement plugin = (TypeElement) method.getEnclosingElement();
+            List<Action> actions = byPlugin.get(plugin);
+            if (actions == null) {
+                actions = new ArrayList<Action>();
+                byPlugin.put(plugin, actions);
+            }
+            String name = actionName(method);
+            for (Action other : actions) {
+                if (other.name.equals(name)) {
+                    error(method, "Action \"" + name + "\" is already handled by " + other.method.getSimpleName() + "()");
+                }
+            }
+            actions.add(new Action(name, method));
+        }
+        for (Map.Entry<TypeElement, List<Action>> entry : byPlugin.entrySet()) {
+            if (isValid(entry.getKey(), entry.getValue())) {
+                write(entry.getKey(), entry.getValue());
+            }
+        }
+        return true;
+    }
+
+    private String actionName(ExecutableElement method) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(CORDOVA_ACTION)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                        : mirror.getElementValues().entrySet()) {
+                    if (value.getKey().getSimpleName().contentEquals("value")) {
+                        String name = (String) value.getValue().getValue();
+                        if (!name.isEmpty()) {
+                            return name;
+                        }
+                    }
+                }
+            }
+        }
+        return method.getSimpleName().toString();
+    }
+
+    private boolean isValid(TypeElement plugin, List<Action> actions) {
+        boolean valid = true;
+        TypeElement cordovaPlugin = processingEnv.getElementUtils().getTypeElement(CORDOVA_PLUGIN);
+        if (plugin.getModifiers().contains(Modifier.PRIVATE)
+                || !processingEnv.getTypeUtils().isAssignable(
+                        processingEnv.getTypeUtils().erasure(plugin.asType()), cordovaPlugin.asType())) {
+            error(plugin, "CordovaAction methods must be in a non-private CordovaPlugin class");
+            valid = false;
+        }
+        for (Action action : actions) {
+            ExecutableElement method = action.method;
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                error(method, "CordovaAction methods must not be private or static");
+                valid = false;
+            }
+            boolean hasCallback = false;
+            for (VariableElement parameter : method.getParameters()) {
+                String type = parameter.asType().toString();
+                if (CALLBACK_CONTEXT.equals(type)) {
+                    hasCallback = true;
+                } else if (!CORDOVA_ARGS.equals(type) && !GETTERS.containsKey(type)) {
+                    error(parameter, "Unsupported CordovaAction parameter type " + type);
+                    valid = false;
+                }
+            }
+            String returnType = method.getReturnType().toString();
+            if (!contains(RESULT_TYPES, returnType) || (hasCallback && !"void".equals(returnType))) {
+                error(method, "CordovaAction methods return void, String, int, boolean, JSONObject, JSONArray"
+                        + " or byte[], and void if they take a CallbackContext");
+                valid = false;
+            }
+            for (TypeMirror thrown : method.getThrownTypes()) {
+                if (!isUnchecked(thrown) && !JSON_EXCEPTION.equals(thrown.toString())) {
+                    error(method, "CordovaAction methods may only throw JSONException, not " + thrown);
+                    valid = false;
+                }
+            }
+        }
+        return valid;
+    }
+
+    private boolean isUnchecked(TypeMirror type) {
+        TypeMirror runtimeException = processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+        TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+        return processingEnv.getTypeUtils().isAssignable(type, runtimeException)
+                || processingEnv.getTypeUtils().isAssignable(type, error);
+    }
+
+    private void write(TypeElement plugin, List<Action> actions) {
+        String packageName = ((PackageElement) packageOf(plugin)).getQualifiedName().toString();
+        String className = flatName(plugin) + SUFFIX;
+        String pluginType = processingEnv.getTypeUtils().erasure(plugin.asType()).toString();
+        try {
+            String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+            Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, plugin).openWriter();
+            try {
+                if (!packageName.isEmpty()) {
+                    writer.write("package " + packageName + ";\n\n");
+                }
+                writer.write("/**\n * Generated by " + getClass().getName() + " from the CordovaAction methods of "
+                        + plugin.getSimpleName() + ". Do not edit.\n */\n");
+                writer.write("public final class " + className + " implements org.apache.cordova.ActionDispatcher {\n");
+                writer.write("    @Override\n");
+                writer.write("    public boolean dispatch(org.apache.cordova.CordovaPlugin plugin, String action, String rawArgs,\n");
+                writer.write("            " + CALLBACK_CONTEXT + " callbackContext) throws " + JSON_EXCEPTION + " {\n");
+                writer.write("        switch (action) {\n");
+                for (Action action : actions) {
+                    writeCase(writer, pluginType, action);
+                }
+                writer.write("            default:\n");
+                writer.write("                return false;\n");
+                writer.write("        }\n");
+                writer.write("    }\n");
+                writer.write("}\n");
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot write " + className + ": " + e.getMessage(), plugin);
+        }
+    }
+
+    private void writeCase(Writer writer, String pluginType, Action action) throws IOException {
+        ExecutableElement method = action.method;
+        StringBuilder call = new StringBuilder();
+        boolean needsArgs = false;
+        boolean hasCallback = false;
+        int index = 0;
+        for (VariableElement parameter : method.getParameters()) {
+            if (call.length() > 0) {
+                call.append(", ");
+            }
+            String type = parameter.asType().toString();
+            if (CALLBACK_CONTEXT.equals(type)) {
+                hasCallback = true;
+                call.append("callbackContext");
+                continue;
+            }
+            needsArgs = true;
+            if (CORDOVA_ARGS.equals(type)) {
+                call.append("args");
+                continue;
+            }
+            String[] getters = GETTERS.get(type);
+            if (!isOptional(parameter)) {
+                call.append("args.").append(getters[0]).append('(').append(index).append(')');
+            } else if (getters[1] != null) {
+                call.append("args.").append(getters[1]).append('(').append(index).append(')');
+            } else {
+                call.append("args.isNull(").append(index).append(") ? null : args.")
+                        .append(getters[0]).append('(').append(index).append(')');
+            }
+            index++;
+        }
+
+        writer.write("            case \"" + escape(action.name) + "\": {\n");
+        if (needsArgs) {
+            writer.write("                " + CORDOVA_ARGS + " args = new " + CORDOVA_ARGS
+                    + "(new org.json.JSONArray(rawArgs));\n");
+        }
+        String invocation = "((" + pluginType + ") plugin)." + method.getSimpleName() + "(" + call + ")";
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            writer.write("                " + invocation + ";\n");
+            if (!hasCallback) {
+                // The reply CoreAndroid's execute() always gave: OK with an empty message
+                writer.write("                callbackContext.sendPluginResult(new " + PLUGIN_RESULT + "("
+                        + PLUGIN_RESULT + ".Status.OK, \"\"));\n");
+            }
+        } else {
+            writer.write("                callbackContext.sendPluginResult(new " + PLUGIN_RESULT + "("
+                    + PLUGIN_RESULT + ".Status.OK, " + invocation + "));\n");
+        }
+        writer.write("                return true;\n");
+        writer.write("            }\n");
+    }
+
+    private static boolean isOptional(VariableElement parameter) {
+        for (AnnotationMirror mirror : parameter.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(OPTIONAL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Element packageOf(Element element) {
+        while (element.getKind() != ElementKind.PACKAGE) {
+            element = element.getEnclosingElement();
+        }
+        return element;
+    }
+
+    /**
+     * Outer_Inner for nested classes, as ActionDispatchers looks them up
+     */
+    private static String flatName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing.getKind() != ElementKind.PACKAGE) {
+            name = enclosing.getSimpleName() + "_" + name;
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name;
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for (String v : values) {
+            if (v.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
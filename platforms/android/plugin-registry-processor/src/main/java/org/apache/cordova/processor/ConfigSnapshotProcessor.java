@@ -0,0 +1,264 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Generates org.apache.cordova.GeneratedConfig, the CompiledConfig of the app: config.xml
+ * read at build time, as ConfigXmlParser and AllowListPlugin read it at runtime. Preference
+ * names come lowercased and allow-list origins come split into scheme, host, port and
+ * path, so loading it at startup is a handful of array and constructor calls.
+ *
+ * Like PluginRegistryProcessor, it only runs when the cordova.configXml option is set.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(PluginRegistryProcessor.OPTION_CONFIG_XML)
+public class ConfigSnapshotProcessor extends AbstractProcessor {
+    private static final String PACKAGE = "org.apache.cordova";
+    private static final String CLASS_NAME = "GeneratedConfig";
+    private static final String DEFAULT_CONTENT_SRC = "index.html";
+
+    // The origin syntax of AllowList.addAllowListEntry(String, boolean)
+    private static final Pattern ORIGIN_PARTS =
+            Pattern.compile("^((\\*|[A-Za-z-]+):(//)?)?(\\*|((\\*\\.)?[^*/:]+))?(:(\\d+))?(/.*)?");
+
+    private boolean generated = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (generated || roundEnv.processingOver()) {
+            return false;
+        }
+        generated = true;
+        String configXml = processingEnv.getOptions().get(PluginRegistryProcessor.OPTION_CONFIG_XML);
+        if (configXml == null) {
+            return false;
+        }
+        Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File(configXml));
+        } catch (Exception e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot read " + configXml + ": " + e.getMessage());
+            return false;
+        }
+
+        List<String> preferences = new ArrayList<String>();
+        List<String> pluginEntries = new ArrayList<String>();
+        List<String> allowListEntries = new ArrayList<String>();
+        String contentSrc = null;
+        NodeList elements = document.getElementsByTagName("*");
+        for (int i = 0; i < elements.getLength(); i++) {
+            Element element = (Element) elements.item(i);
+            String name = element.getTagName();
+            if (name.equals("preference")) {
+                preferences.add(literal(element.getAttribute("name").toLowerCase(Locale.ENGLISH)));
+                preferences.add(literal(attribute(element, "value")));
+            } else if (name.equals("feature")) {
+                pluginEntries.add(pluginEntry(element));
+            } else if (name.equals("content")) {
+                String src = attribute(element, "src");
+                contentSrc = src != null ? src : DEFAULT_CONTENT_SRC;
+                if (src != null) {
+                    addAllowListEntry(allowListEntries, "navigations", src);
+                }
+            } else if (name.equals("allow-navigation")) {
+                String origin = attribute(element, "href");
+                if ("*".equals(origin)) {
+                    addAllowListEntry(allowListEntries, "navigations", "http://*/*");
+                    addAllowListEntry(allowListEntries, "navigations", "https://*/*");
+                    addAllowListEntry(allowListEntries, "navigations", "data:*");
+                } else {
+                    addAllowListEntry(allowListEntries, "navigations", origin);
+                }
+            } else if (name.equals("allow-intent")) {
+                addAllowListEntry(allowListEntries, "intents", attribute(element, "href"));
+            } else if (name.equals("access")) {
+                String origin = attribute(element, "origin");
+                if ("*".equals(origin)) {
+                    addAllowListEntry(allowListEntries, "requests", "http://*/*");
+                    addAllowListEntry(allowListEntries, "requests", "https://*/*");
+                } else if (origin != null) {
+                    addAllowListEntry(allowListEntries, "requests", origin);
+                }
+            }
+        }
+        write(preferences, pluginEntries, contentSrc, allowListEntries);
+        return false;
+    }
+
+    /**
+     * A PluginEntry constructor call, from the params of a feature as ConfigXmlParser reads them
+     */
+    private static String pluginEntry(Element feature) {
+        String service = attribute(feature, "name");
+        String pluginClass = "";
+        boolean onload = false;
+        String onloadPhase = null;
+        NodeList params = feature.getElementsByTagName("param");
+        for (int i = 0; i < params.getLength(); i++) {
+            Element param = (Element) params.item(i);
+            String name = param.getAttribute("name");
+            if (name.equals("service")) {
+                service = attribute(param, "value");
+            } else if (name.equals("package") || name.equals("android-package")) {
+                pluginClass = attribute(param, "value");
+            } else if (name.equals("onload")) {
+                onload = "true".equals(attribute(param, "value"));
+            } else if (name.equals("onload-phase")) {
+                onloadPhase = attribute(param, "value");
+            }
+        }
+        String phase = onloadPhase != null
+                ? "PluginEntry.OnloadPhase.fromConfigValue(" + literal(onloadPhase) + ")"
+                : "PluginEntry.OnloadPhase.BEFORE_FIRST_FRAME";
+        return "new PluginEntry(" + literal(service) + ", " + literal(pluginClass) + ", " + onload + ", " + phase + ")";
+    }
+
+    /**
+     * An AllowList.addAllowListEntry call with the origin split as AllowList would split it.
+     * Origins AllowList would ignore are left out.
+     */
+    private static void addAllowListEntry(List<String> entries, String list, String origin) {
+        if (origin == null) {
+            return;
+        }
+        if (origin.equals("*")) {
+            // Unlimited access: not a pattern
+            entries.add(list + ".addAllowListEntry(\"*\", false);");
+            return;
+        }
+        Matcher m = ORIGIN_PARTS.matcher(origin);
+        if (!m.matches()) {
+            return;
+        }
+        String scheme = m.group(2);
+        String host = m.group(4);
+        if (("file".equals(scheme) || "content".equals(scheme)) && host == null) {
+            host = "*";
+        }
+        String port = m.group(8);
+        String path = m.group(9);
+        if (host == null) {
+            // AllowList fails on these at runtime too
+            return;
+        }
+        String[] schemes = scheme != null ? new String[] { scheme } : new String[] { "http", "https" };
+        for (String s : schemes) {
+            entries.add(list + ".addAllowListEntry(" + literal(s) + ", " + literal(host) + ", "
+                    + literal(port) + ", " + literal(path) + ");");
+        }
+    }
+
+    private void write(List<String> preferences, List<String> pluginEntries, String contentSrc,
+            List<String> allowListEntries) {
+        try {
+            Writer writer = processingEnv.getFiler().createSourceFile(PACKAGE + "." + CLASS_NAME).openWriter();
+            try {
+                writer.write("package " + PACKAGE + ";\n\n");
+                writer.write("/**\n * Generated by " + getClass().getName() + " from config.xml. Do not edit.\n */\n");
+                writer.write("public final class " + CLASS_NAME + " implements CompiledConfig {\n");
+                writer.write("    @Override\n");
+                writer.write("    public String[] getPreferences() {\n");
+                writer.write("        return new String[] {\n");
+                for (int i = 0; i < preferences.size(); i += 2) {
+                    writer.write("            " + preferences.get(i) + ", " + preferences.get(i + 1) + ",\n");
+                }
+                writer.write("        };\n");
+                writer.write("    }\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public PluginEntry[] getPluginEntries() {\n");
+                writer.write("        return new PluginEntry[] {\n");
+                for (String pluginEntry : pluginEntries) {
+                    writer.write("            " + pluginEntry + ",\n");
+                }
+                writer.write("        };\n");
+                writer.write("    }\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public String getContentSrc() {\n");
+                writer.write("        return " + literal(contentSrc) + ";\n");
+                writer.write("    }\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public void addAllowListEntries(AllowList navigations, AllowList intents, AllowList requests) {\n");
+                for (String entry : allowListEntries) {
+                    writer.write("        " + entry + "\n");
+                }
+                writer.write("    }\n");
+                writer.write("}\n");
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot write " + PACKAGE + "." + CLASS_NAME + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * The attribute, or null if it is not there (as XmlPullParser.getAttributeValue)
+     */
+    private static String attribute(Element element, String name) {
+        return element.hasAttribute(name) ? element.getAttribute(name) : null;
+    }
+
+    private static String literal(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
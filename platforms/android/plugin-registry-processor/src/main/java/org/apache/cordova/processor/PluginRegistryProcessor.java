@@ -0,0 +1,179 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+*/
+package org.apache.cordova.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+/**
+ * Generates org.apache.cordova.GeneratedPluginRegistry: a PluginRegistry that creates
+ * every plugin declared in config.xml, plus the ones Cordova always adds, with a plain
+ * constructor call. PluginClassCache picks it up at runtime in place of reflection,
+ * and R8 sees every plugin constructor as used.
+ *
+ * The config.xml path comes from the cordova.configXml processor option; without it
+ * (e.g. when a library runs the processors for its CordovaAction methods) nothing is
+ * generated. Plugins that
+ * are not on the classpath or cannot be constructed without arguments are left out with
+ * a warning; they are still created by reflection.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(PluginRegistryProcessor.OPTION_CONFIG_XML)
+public class PluginRegistryProcessor extends AbstractProcessor {
+    static final String OPTION_CONFIG_XML = "cordova.configXml";
+
+    private static final String PACKAGE = "org.apache.cordova";
+    private static final String CLASS_NAME = "GeneratedPluginRegistry";
+    private static final String CORDOVA_PLUGIN = "org.apache.cordova.CordovaPlugin";
+
+    // Added by ConfigXmlParser and CordovaWebViewImpl regardless of config.xml
+    private static final String[] BUILT_IN_PLUGINS = {
+        "org.apache.cordova.AllowListPlugin",
+        "org.apache.cordova.SplashScreenPlugin",
+        "org.apache.cordova.CoreAndroid"
+    };
+
+    private boolean generated = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (generated || roundEnv.processingOver()) {
+            return false;
+        }
+        generated = true;
+
+        String configXml = processingEnv.getOptions().get(OPTION_CONFIG_XML);
+        if (configXml == null) {
+            return false;
+        }
+        Set<String> classNames = new LinkedHashSet<String>();
+        for (String className : BUILT_IN_PLUGINS) {
+            classNames.add(className);
+        }
+        readPluginClasses(new File(configXml), classNames);
+
+        Set<String> constructible = new LinkedHashSet<String>();
+        for (String className : classNames) {
+            if (isConstructible(className)) {
+                constructible.add(className);
+            }
+        }
+        write(constructible);
+        return false;
+    }
+
+    /**
+     * The android-package (or legacy package) params of every feature
+     */
+    private void readPluginClasses(File configXml, Set<String> classNames) {
+        try {
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(configXml);
+            NodeList params = document.getElementsByTagName("param");
+            for (int i = 0; i < params.getLength(); i++) {
+                org.w3c.dom.Element param = (org.w3c.dom.Element) params.item(i);
+                String name = param.getAttribute("name");
+                boolean inFeature = "feature".equals(param.getParentNode().getNodeName());
+                if (inFeature && ("android-package".equals(name) || "package".equals(name))) {
+                    classNames.add(param.getAttribute("value"));
+                }
+            }
+        } catch (Exception e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot read " + configXml + ": " + e.getMessage());
+        }
+    }
+
+    private boolean isConstructible(String className) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(className);
+        TypeElement cordovaPlugin = processingEnv.getElementUtils().getTypeElement(CORDOVA_PLUGIN);
+        if (type == null || cordovaPlugin == null) {
+            warn(className + " is not on the classpath; it will be created by reflection");
+            return false;
+        }
+        if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !processingEnv.getTypeUtils().isAssignable(type.asType(), cordovaPlugin.asType())) {
+            warn(className + " is not a public, concrete CordovaPlugin; it will be created by reflection");
+            return false;
+        }
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.CONSTRUCTOR && member.getModifiers().contains(Modifier.PUBLIC)
+                    && ((ExecutableElement) member).getParameters().isEmpty()) {
+                return true;
+            }
+        }
+        warn(className + " has no public no-arg constructor; it will be created by reflection");
+        return false;
+    }
+
+    private void write(Set<String> classNames) {
+        try {
+            Writer writer = processingEnv.getFiler().createSourceFile(PACKAGE + "." + CLASS_NAME).openWriter();
+            try {
+                writer.write("package " + PACKAGE + ";\n\n");
+                writer.write("/**\n * Generated by " + getClass().getName() + " from config.xml. Do not edit.\n */\n");
+                writer.write("public final class " + CLASS_NAME + " implements PluginRegistry {\n");
+                writer.write("    @Override\n");
+                writer.write("    public CordovaPlugin newPlugin(String className) {\n");
+                writer.write("        switch (className) {\n");
+                for (String className : classNames) {
+                    writer.write("            case \"" + className + "\":\n");
+                    writer.write("                return new " + className + "();\n");
+                }
+                writer.write("            default:\n");
+                writer.write("                return null;\n");
+                writer.write("        }\n");
+                writer.write("    }\n");
+                writer.write("}\n");
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot write " + PACKAGE + "." + CLASS_NAME + ": " + e.getMessage());
+        }
+    }
+
+    private void warn(String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message);
+    }
+}
@@ -6,6 +6,11 @@
 
 var app = {
     currentView: 'home',
+    deviceReady: false,
+
+    // Serializable app state. Native code keeps a copy (see saveState) and hands it
+    // back through the restoreState command if the WebView has to be replaced.
+    state: {},
 
     // Application Constructor
     initialize: function() {
@@ -20,6 +25,11 @@ var app = {
     onDeviceReady: function() {
         console.log('Device is ready!');
         this.receivedEvent('deviceready');
+        this.deviceReady = true;
+
+        // Tell the native preloader that this WebView is ready for use
+        cordova.exec(null, null, 'PreloadReadiness', 'ready', []);
+        this.saveState();
         
         // Set up back button handler for Android
         document.addEventListener("backbutton", this.onBackButton.bind(this), false);
@@ -48,6 +58,14 @@ var app = {
         // Expose navigation function globally for native calls
         window.navigateToView = this.navigateToView.bind(this);
         window.handleBackButton = this.onBackButton.bind(this);
+        // Called by native code before a pooled WebView is handed to the next session
+        window.scrubSession = this.scrubSession.bind(this);
+
+        // Commands native code invokes through its command channel
+        var commands = window.nativeCommands = window.nativeCommands || { handlers: {} };
+        commands.handlers.navigate = this.nativeNavigate.bind(this);
+        commands.handlers.back = this.onBackButton.bind(this);
+        commands.handlers.restoreState = this.restoreState.bind(this);
         
         console.log('Navigation initialized. Current view: ' + this.currentView);
     },
@@ -68,6 +86,23 @@ var app = {
         window.location.hash = viewName;
     },
 
+    // Navigate on behalf of native code and report back once the view has painted
+    nativeNavigate: function(viewName, requestId) {
+        if (window.location.hash.substring(1) !== viewName) {
+            // showView() below runs first, so hashchange will find nothing to do
+            window.location.hash = viewName;
+        }
+        this.showView(viewName);
+        var found = this.currentView === viewName;
+
+        // The first frame callback runs before the new view is painted, the second after it
+        requestAnimationFrame(function() {
+            requestAnimationFrame(function() {
+                cordova.exec(null, null, 'ViewRouter', 'painted', [requestId, viewName, found]);
+            });
+        });
+    },
+
     // Show a specific view
     showView: function(viewName) {
         console.log('Showing view: ' + viewName);
@@ -86,11 +121,32 @@ var app = {
             
             // Log performance - view switch without reload!
             console.log('View switched to: ' + viewName + ' (NO RELOAD)');
+            this.saveState();
         } else {
             console.error('View not found: ' + viewName);
         }
     },
 
+    // Hand the current view and app state to native code; call after changing app.state
+    saveState: function() {
+        if (this.deviceReady) {
+            cordova.exec(null, null, 'SessionState', 'save', [this.currentView, JSON.stringify(this.state)]);
+        }
+    },
+
+    // Called by native code with the state saved before the WebView was replaced
+    restoreState: function(state) {
+        console.log('Restoring app state after WebView recovery');
+        this.state = JSON.parse(state) || {};
+    },
+
+    // Forget everything of the current session; native code then returns to the home view
+    scrubSession: function() {
+        console.log('Scrubbing session state');
+        this.state = {};
+        this.showView('home');
+    },
+
     // Handle back button
     onBackButton: function() {
         console.log('Back button pressed. Current view: ' + this.currentView);